@@ -0,0 +1,7 @@
+package ao.creativemode.kixi.common.batch;
+
+/**
+ * One element of a batch request with its position in the request body.
+ */
+public record BatchItem<T>(int index, T value) {
+}
@@ -0,0 +1,26 @@
+package ao.creativemode.kixi.common.batch;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one batch item. {@code index} is the item's position in the request
+ * body and {@code status} the HTTP status the single-item endpoint would have
+ * answered with.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult<T>(int index, int status, T data, String error) {
+
+    public static <T> BatchResult<T> created(int index, T data) {
+        return new BatchResult<>(index, HttpStatus.CREATED.value(), data, null);
+    }
+
+    public static <T> BatchResult<T> ok(int index, T data) {
+        return new BatchResult<>(index, HttpStatus.OK.value(), data, null);
+    }
+
+    public static <T> BatchResult<T> failed(int index, ApiException error) {
+        return new BatchResult<>(index, error.getStatus().value(), null, error.getMessage());
+    }
+}
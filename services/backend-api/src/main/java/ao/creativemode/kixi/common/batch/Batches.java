@@ -0,0 +1,159 @@
+package ao.creativemode.kixi.common.batch;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Plumbing shared by the bulk endpoints.
+ * The request body (a JSON array or an NDJSON stream) is indexed, validated item
+ * by item and cut into chunks of {@value #CHUNK_SIZE}; each chunk is handed to the
+ * service, which writes it with one statement. Results stream back as soon as a
+ * chunk is done, in request order: each chunk's results are put back in index
+ * order before they are emitted, whichever step answered them. A failing item
+ * never fails the request; a chunk that fails as a whole reports the error on
+ * each of its items.
+ */
+public final class Batches {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private static final Comparator<BatchResult<?>> BY_INDEX = Comparator.comparingInt(BatchResult::index);
+
+    private Batches() {
+    }
+
+    public static <I, R> Flux<BatchResult<R>> process(Flux<I> body,
+                                                      Validator validator,
+                                                      Function<List<BatchItem<I>>, Flux<BatchResult<R>>> chunkHandler) {
+        return indexed(body)
+                .buffer(CHUNK_SIZE)
+                .concatMap(chunk -> {
+                    List<BatchResult<R>> invalid = new ArrayList<>();
+                    List<BatchItem<I>> valid = new ArrayList<>(chunk.size());
+                    for (BatchItem<I> item : chunk) {
+                        Set<ConstraintViolation<I>> violations = validator.validate(item.value());
+                        if (violations.isEmpty()) {
+                            valid.add(item);
+                        } else {
+                            invalid.add(BatchResult.failed(item.index(), ApiException.badRequest(describe(violations))));
+                        }
+                    }
+                    return Flux.concat(Flux.fromIterable(invalid), handle(valid, chunkHandler))
+                            .sort(BY_INDEX);
+                });
+    }
+
+    public static <I, R> Flux<BatchResult<R>> process(Flux<I> body,
+                                                      Function<List<BatchItem<I>>, Flux<BatchResult<R>>> chunkHandler) {
+        return indexed(body)
+                .buffer(CHUNK_SIZE)
+                .concatMap(chunk -> handle(chunk, chunkHandler).sort(BY_INDEX));
+    }
+
+    public static <I> List<I> values(List<BatchItem<I>> items) {
+        return items.stream().map(BatchItem::value).toList();
+    }
+
+    /**
+     * Pairs each item with the row inserted for it; items without a row get the
+     * error built from their position in {@code items}.
+     */
+    public static <I, E, R> Flux<BatchResult<R>> created(List<BatchItem<I>> items,
+                                                         List<Optional<E>> inserted,
+                                                         Function<E, R> toResponse,
+                                                         IntFunction<ApiException> missing) {
+        List<BatchResult<R>> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = items.get(i).index();
+            int position = i;
+            results.add(inserted.get(i)
+                    .map(row -> BatchResult.created(index, toResponse.apply(row)))
+                    .orElseGet(() -> BatchResult.failed(index, missing.apply(position))));
+        }
+        return Flux.fromIterable(results);
+    }
+
+    /**
+     * Pairs each item with its row when every item was inserted, in order.
+     */
+    public static <I, E, R> Flux<BatchResult<R>> created(List<BatchItem<I>> items,
+                                                         List<E> inserted,
+                                                         Function<E, R> toResponse) {
+        return Flux.range(0, inserted.size())
+                .map(i -> BatchResult.created(items.get(i).index(), toResponse.apply(inserted.get(i))));
+    }
+
+    /**
+     * Items failing {@code check} get the error built for them; the others go to
+     * {@code handler}.
+     */
+    public static <I, R> Flux<BatchResult<R>> filter(List<BatchItem<I>> items,
+                                                     Predicate<I> check,
+                                                     Function<I, ApiException> error,
+                                                     Function<List<BatchItem<I>>, Flux<BatchResult<R>>> handler) {
+        List<BatchResult<R>> rejected = new ArrayList<>();
+        List<BatchItem<I>> accepted = new ArrayList<>(items.size());
+        for (BatchItem<I> item : items) {
+            if (check.test(item.value())) {
+                accepted.add(item);
+            } else {
+                rejected.add(BatchResult.failed(item.index(), error.apply(item.value())));
+            }
+        }
+        return Flux.concat(Flux.fromIterable(rejected), handle(accepted, handler));
+    }
+
+    /**
+     * Results of an id-based bulk statement: ids in {@code affected} succeeded,
+     * the others get {@code missing}.
+     */
+    public static Flux<BatchResult<Long>> byId(List<BatchItem<Long>> items,
+                                               Collection<Long> affected,
+                                               Supplier<ApiException> missing) {
+        return Flux.fromIterable(items)
+                .map(item -> affected.contains(item.value())
+                        ? BatchResult.ok(item.index(), item.value())
+                        : BatchResult.<Long>failed(item.index(), missing.get()));
+    }
+
+    private static <I> Flux<BatchItem<I>> indexed(Flux<I> body) {
+        return body.index().map(t -> new BatchItem<>(t.getT1().intValue(), t.getT2()));
+    }
+
+    private static <I, R> Flux<BatchResult<R>> handle(List<BatchItem<I>> chunk,
+                                                      Function<List<BatchItem<I>>, Flux<BatchResult<R>>> chunkHandler) {
+        if (chunk.isEmpty()) {
+            return Flux.empty();
+        }
+        return chunkHandler.apply(chunk)
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> failAll(chunk, ApiException.conflict("Chunk rejected by a database constraint")))
+                .onErrorResume(ApiException.class, e -> failAll(chunk, e));
+    }
+
+    private static <I, R> Flux<BatchResult<R>> failAll(List<BatchItem<I>> chunk, ApiException error) {
+        return Flux.fromIterable(chunk).map(item -> BatchResult.failed(item.index(), error));
+    }
+
+    private static <I> String describe(Set<ConstraintViolation<I>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
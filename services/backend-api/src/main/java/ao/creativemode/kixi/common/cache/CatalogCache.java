@@ -0,0 +1,141 @@
+package ao.creativemode.kixi.common.cache;
+
+import ao.creativemode.kixi.common.web.ETags;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through, write-invalidate snapshot of a small reference catalog
+ * (school years, terms, courses, roles).
+ * The active rows are held as one immutable {@link Snapshot}; readers share it
+ * without locking and concurrent loads share a single query. Writes in the
+ * owning service call {@link #refresh()}, which swaps in a freshly loaded
+ * snapshot. Snapshots also expire after {@code maxAge} to pick up changes
+ * made on other replicas.
+ */
+public final class CatalogCache<T> {
+
+    private final Function<T, Long> idOf;
+    private final Function<T, LocalDateTime> updatedAtOf;
+    private final Duration maxAge;
+    private final AtomicLong generation = new AtomicLong();
+    private final Mono<Snapshot<T>> cached;
+
+    public CatalogCache(Supplier<Flux<T>> loader,
+                        Function<T, Long> idOf,
+                        Function<T, LocalDateTime> updatedAtOf,
+                        Duration maxAge) {
+        this.idOf = idOf;
+        this.updatedAtOf = updatedAtOf;
+        this.maxAge = maxAge;
+        this.cached = Mono.defer(() -> {
+                    long loadGeneration = generation.get();
+                    return loader.get()
+                            .collectList()
+                            .map(items -> newSnapshot(items, loadGeneration));
+                })
+                .cacheInvalidateIf(this::isStale);
+    }
+
+    public Mono<Snapshot<T>> snapshot() {
+        return cached;
+    }
+
+    /**
+     * Marks the current snapshot stale and loads a new one.
+     */
+    public Mono<Void> refresh() {
+        return Mono.defer(() -> {
+            generation.incrementAndGet();
+            return cached.then();
+        });
+    }
+
+    private boolean isStale(Snapshot<T> snapshot) {
+        return snapshot.generation() != generation.get()
+                || System.nanoTime() - snapshot.loadedAtNanos() > maxAge.toNanos();
+    }
+
+    private Snapshot<T> newSnapshot(List<T> items, long loadGeneration) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparing(idOf));
+
+        long hash = 17L;
+        for (T item : sorted) {
+            hash = 31L * hash + idOf.apply(item);
+            hash = 31L * hash + ETags.epochMicros(updatedAtOf.apply(item));
+        }
+        String etag = ETags.weak(sorted.size() + "-" + Long.toHexString(hash));
+
+        return new Snapshot<>(sorted, idOf, etag, loadGeneration);
+    }
+
+    /**
+     * Immutable view of the active rows of a catalog, ordered by id.
+     */
+    public static final class Snapshot<T> {
+
+        private final List<T> items;
+        private final Map<Long, T> byId;
+        private final Function<T, Long> idOf;
+        private final String etag;
+        private final long generation;
+        private final long loadedAtNanos;
+
+        private Snapshot(List<T> items, Function<T, Long> idOf, String etag, long generation) {
+            this.items = List.copyOf(items);
+            this.byId = items.stream().collect(Collectors.toUnmodifiableMap(idOf, Function.identity()));
+            this.idOf = idOf;
+            this.etag = etag;
+            this.generation = generation;
+            this.loadedAtNanos = System.nanoTime();
+        }
+
+        public List<T> items() {
+            return items;
+        }
+
+        public T get(Long id) {
+            return byId.get(id);
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * Keyset page over the snapshot: rows with id greater than {@code after}.
+         */
+        public List<T> pageAfter(long after, int limit) {
+            List<T> page = new ArrayList<>(Math.min(limit, items.size()));
+            for (T item : items) {
+                if (idOf.apply(item) > after) {
+                    page.add(item);
+                    if (page.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return page;
+        }
+
+        long generation() {
+            return generation;
+        }
+
+        long loadedAtNanos() {
+            return loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ao.creativemode.kixi.common.concurrency;
+
+import ao.creativemode.kixi.common.web.ProblemResponses;
+import ao.creativemode.kixi.common.web.RetryAfter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Admission control in front of the handlers. Reads (GET, HEAD, OPTIONS) and
+ * writes each have their own {@link VegasLimiter}, so a burst of slow writes
+ * cannot starve reads. A request over the limit is answered at once with 503
+ * and Retry-After instead of queueing on the connection pool.
+ * <p>
+ * A request holds its slot, and its latency is measured, until the response
+ * has been written completely. List endpoints stream rows from an R2DBC cursor
+ * after the headers go out, so the connection is in use until the last row; the
+ * limit has to cover that whole time to bound concurrent database work. A 5xx
+ * status or an error signal counts as a drop; cancelled requests release their
+ * slot without a sample.
+ */
+public final class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private final VegasLimiter reads;
+    private final VegasLimiter writes;
+    private final List<PathPattern> excludedPaths;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    public ConcurrencyLimitWebFilter(VegasLimiter reads,
+                                     VegasLimiter writes,
+                                     List<String> excludedPaths,
+                                     Duration retryAfter,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.excludedPaths = excludedPaths.stream()
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        this.readsRejected = register(registry, reads);
+        this.writesRejected = register(registry, writes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (isExcluded(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        boolean read = isRead(exchange.getRequest().getMethod());
+        VegasLimiter limiter = read ? reads : writes;
+        if (!limiter.tryAcquire()) {
+            (read ? readsRejected : writesRejected).increment();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RetryAfter.seconds(retryAfter));
+            return ProblemResponses.write(exchange, objectMapper, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Service Unavailable", "Server is at capacity, please retry shortly");
+        }
+
+        long start = System.nanoTime();
+        ServerHttpResponse response = exchange.getResponse();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.abandon();
+                        return;
+                    }
+                    boolean dropped = signal == SignalType.ON_ERROR || isServerError(response.getStatusCode());
+                    limiter.release(System.nanoTime() - start, dropped);
+                });
+    }
+
+    private static boolean isServerError(HttpStatusCode status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    private boolean isExcluded(ServerWebExchange exchange) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern pattern : excludedPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static Counter register(MeterRegistry registry, VegasLimiter limiter) {
+        Gauge.builder("kixi.concurrency.limit", limiter, VegasLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", limiter.name())
+                .register(registry);
+        Gauge.builder("kixi.concurrency.in_flight", limiter, VegasLimiter::inFlight)
+                .description("Requests currently admitted")
+                .tag("route", limiter.name())
+                .register(registry);
+        return Counter.builder("kixi.concurrency.rejected")
+                .description("Requests shed by the concurrency limit")
+                .tag("route", limiter.name())
+                .register(registry);
+    }
+}
@@ -0,0 +1,131 @@
+package ao.creativemode.kixi.common.concurrency;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of TCP Vegas.
+ * The limit follows the estimated queue, {@code limit * (1 - minRtt / rtt)}:
+ * while latency stays near the no-load baseline the limit grows, and once
+ * requests start queueing (in the database pool, typically) it shrinks, so
+ * excess load is rejected up front instead of waiting until it times out.
+ * <p>
+ * Admission is a CAS on the in-flight count; samples are folded in under a
+ * short lock. The no-load baseline is re-probed periodically so it follows
+ * changes in the environment.
+ */
+public final class VegasLimiter {
+
+    private static final int PROBE_FACTOR = 30;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private long samplesUntilProbe;
+
+    public VegasLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.samplesUntilProbe = nextProbe();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Admits a request if fewer than {@link #limit()} are in flight.
+     * Every admitted request must be followed by exactly one {@link #release} or {@link #abandon}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and feeds its latency into the limit.
+     *
+     * @param dropped whether the request failed in a way that signals overload
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        sample(rttNanos, inFlightBefore, dropped);
+    }
+
+    /**
+     * Ends an admitted request without a sample, e.g. when the client went away.
+     */
+    public void abandon() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightBefore, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (--samplesUntilProbe <= 0) {
+            rttNoLoadNanos = rttNanos;
+            samplesUntilProbe = nextProbe();
+            return;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+        }
+
+        double current = estimatedLimit;
+        double log = Math.max(1.0, Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current - log;
+        } else if (inFlightBefore * 2 < current) {
+            // Far below the limit: latency says nothing about whether it could grow
+            return;
+        } else {
+            double queue = Math.ceil(current * (1 - (double) rttNoLoadNanos / rttNanos));
+            if (queue <= log) {
+                next = current + 6 * log;
+            } else if (queue < 3 * log) {
+                next = current + log;
+            } else if (queue > 6 * log) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    private long nextProbe() {
+        long base = (long) PROBE_FACTOR * Math.max(limit, minLimit);
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+}
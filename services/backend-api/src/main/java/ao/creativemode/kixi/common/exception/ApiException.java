@@ -2,16 +2,20 @@ package ao.creativemode.kixi.common.exception;
 
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+
 public class ApiException extends RuntimeException {
     private final HttpStatus status;
     private final String title;
     private final String code;
+    private final Duration retryAfter;
 
     public ApiException(HttpStatus status, String message) {
         super(message);
         this.status = status;
         this.title = null;
         this.code = null;
+        this.retryAfter = null;
     }
 
     public ApiException(HttpStatus status, String title, String message) {
@@ -19,12 +23,32 @@ public class ApiException extends RuntimeException {
         this.status = status;
         this.title = title;
         this.code = null;
+        this.retryAfter = null;
+    }
+
+    public ApiException(HttpStatus status, String title, String message, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.title = title;
+        this.code = null;
+        this.retryAfter = retryAfter;
     }
 
     public HttpStatus getStatus() {
         return status;
     }
 
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * How long the client should wait before retrying, sent as Retry-After; null if not applicable.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
     public static ApiException notFound(String message) {
         return new ApiException(HttpStatus.NOT_FOUND, "Not Found", message);
     }
@@ -33,7 +57,23 @@ public class ApiException extends RuntimeException {
         return new ApiException(HttpStatus.BAD_REQUEST, "Bad Request", message);
     }
 
+    public static ApiException unauthorized(String message) {
+        return new ApiException(HttpStatus.UNAUTHORIZED, "Unauthorized", message);
+    }
+
     public static ApiException conflict(String message) {
         return new ApiException(HttpStatus.CONFLICT, "Conflict", message);
     }
+
+    public static ApiException preconditionFailed(String message) {
+        return new ApiException(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", message);
+    }
+
+    public static ApiException tooManyRequests(String message) {
+        return new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", message);
+    }
+
+    public static ApiException tooManyRequests(String message, Duration retryAfter) {
+        return new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", message, retryAfter);
+    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package ao.creativemode.kixi.common.exception;
 
 import ao.creativemode.kixi.common.dto.ProblemDetail;
+import ao.creativemode.kixi.common.web.RetryAfter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -30,11 +32,17 @@ public class GlobalExceptionHandler {
             ApiException ex,
             ServerWebExchange exchange) {
 
+        int status = ex.getStatus().value();
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(
-                500,
-                ex.getMessage() != null ? ex.getMessage() : "API Error occurred").withTitle("API Error");
+                status,
+                ex.getMessage() != null ? ex.getMessage() : "API Error occurred")
+                .withTitle(ex.getTitle() != null ? ex.getTitle() : ex.getStatus().getReasonPhrase());
         problem = addInstance(exchange, problem);
-        return Mono.just(ResponseEntity.status(500).body(problem));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (ex.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, RetryAfter.seconds(ex.getRetryAfter()));
+        }
+        return Mono.just(response.body(problem));
     }
 
     @ExceptionHandler(WebExchangeBindException.class)
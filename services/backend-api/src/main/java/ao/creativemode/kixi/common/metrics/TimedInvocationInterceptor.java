@@ -0,0 +1,108 @@
+package ao.creativemode.kixi.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of one component, tagged by entity, operation and
+ * outcome. For {@link Mono} and {@link Flux} results the timer runs from
+ * subscription to the terminal signal, which is when the work actually happens;
+ * other results are timed around the call itself.
+ * Timers are resolved once per method, so the per-call cost is two clock reads
+ * and a map lookup.
+ */
+public final class TimedInvocationInterceptor implements MethodInterceptor {
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+    private static final String CANCELLED = "cancelled";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final String metricName;
+    private final String entity;
+    private final Map<Method, Timers> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry   resolved lazily, the interceptor is created while beans are still being post-processed
+     * @param metricName timer name, e.g. {@code kixi.repository}
+     * @param entity     value of the {@code entity} tag
+     */
+    public TimedInvocationInterceptor(ObjectProvider<MeterRegistry> registry, String metricName, String entity) {
+        this.registry = registry;
+        this.metricName = metricName;
+        this.entity = entity;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!Modifier.isPublic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        Timers methodTimers = timers.computeIfAbsent(method, this::timersFor);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            methodTimers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                long subscribed = System.nanoTime();
+                return mono.doFinally(signal -> methodTimers.record(signal, subscribed));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                long subscribed = System.nanoTime();
+                return flux.doFinally(signal -> methodTimers.record(signal, subscribed));
+            });
+        }
+        methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Timers timersFor(Method method) {
+        MeterRegistry meterRegistry = registry.getObject();
+        return new Timers(
+                timer(meterRegistry, method, SUCCESS),
+                timer(meterRegistry, method, ERROR),
+                timer(meterRegistry, method, CANCELLED));
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, Method method, String outcome) {
+        return Timer.builder(metricName)
+                .tag("entity", entity)
+                .tag("operation", method.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Timers(Timer success, Timer error, Timer cancelled) {
+
+        void record(SignalType signal, long startNanos) {
+            Timer timer = switch (signal) {
+                case ON_ERROR -> error;
+                case CANCEL -> cancelled;
+                default -> success;
+            };
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
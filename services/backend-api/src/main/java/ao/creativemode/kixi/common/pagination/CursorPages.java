@@ -0,0 +1,85 @@
+package ao.creativemode.kixi.common.pagination;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keyset (cursor) pagination for list endpoints.
+ * Pages are fetched with {@code id > :after ORDER BY id LIMIT :n}, so the cost of a
+ * page does not depend on how deep into the table it is. The cursor for the next
+ * page is returned in the {@value #NEXT_CURSOR_HEADER} header, which keeps the body
+ * a plain array (or NDJSON / SSE stream) of rows.
+ */
+public final class CursorPages {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String TOKEN_PREFIX = "id:";
+
+    private CursorPages() {
+    }
+
+    /**
+     * Streams the whole listing when the request is not paginated, otherwise
+     * returns one page and the cursor of the next one.
+     *
+     * @param request  pagination parameters
+     * @param all      unpaginated listing
+     * @param page     fetches rows with id greater than the first argument, at most the second argument rows
+     * @param idOf     extracts the row id used as keyset
+     */
+    public static <T> Mono<ResponseEntity<Flux<T>>> respond(CursorRequest request,
+                                                           Supplier<Flux<T>> all,
+                                                           BiFunction<Long, Integer, Flux<T>> page,
+                                                           Function<T, Long> idOf) {
+        if (!request.isPaged()) {
+            return Mono.just(ResponseEntity.ok(all.get()));
+        }
+
+        int size = request.size();
+        long after = request.afterId();
+
+        // One extra row tells whether a next page exists without a count query
+        return page.apply(after, size + 1)
+                .collectList()
+                .map(rows -> toResponse(rows, size, idOf));
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!token.startsWith(TOKEN_PREFIX)) {
+                throw ApiException.badRequest("Invalid cursor");
+            }
+            return Long.parseLong(token.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Invalid cursor");
+        }
+    }
+
+    private static <T> ResponseEntity<Flux<T>> toResponse(List<T> rows, int size, Function<T, Long> idOf) {
+        if (rows.size() <= size) {
+            return ResponseEntity.ok(Flux.fromIterable(rows));
+        }
+
+        List<T> pageRows = rows.subList(0, size);
+        String next = encode(idOf.apply(pageRows.get(size - 1)));
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, next)
+                .body(Flux.fromIterable(pageRows));
+    }
+}
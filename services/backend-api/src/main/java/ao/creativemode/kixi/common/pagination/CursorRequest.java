@@ -0,0 +1,34 @@
+package ao.creativemode.kixi.common.pagination;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+
+/**
+ * Keyset pagination parameters bound from the {@code after} and {@code limit}
+ * query parameters. When neither is present the listing is not paginated.
+ */
+public record CursorRequest(String after, Integer limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public boolean isPaged() {
+        return after != null || limit != null;
+    }
+
+    /**
+     * Id of the last row of the previous page, or 0 for the first page.
+     */
+    public long afterId() {
+        return after == null || after.isBlank() ? 0L : CursorPages.decode(after);
+    }
+
+    public int size() {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw ApiException.badRequest("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
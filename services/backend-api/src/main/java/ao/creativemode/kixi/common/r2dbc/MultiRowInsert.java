@@ -0,0 +1,151 @@
+package ao.creativemode.kixi.common.r2dbc;
+
+import io.r2dbc.spi.Parameters;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Inserts many entities with one {@code INSERT ... VALUES (...), (...) RETURNING *}
+ * statement, so a chunk costs one round trip and is atomic.
+ * Entities are mapped with the same converter as the repositories; a {@code null}
+ * property is written as {@code DEFAULT}, which lets the database fill ids and
+ * timestamps exactly as for single inserts.
+ */
+@Component
+public class MultiRowInsert {
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    public MultiRowInsert(DatabaseClient databaseClient, R2dbcConverter converter) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+    }
+
+    /**
+     * Inserts all rows; a constraint violation rejects the whole statement.
+     *
+     * @return the inserted rows, in the order of {@code rows}
+     */
+    public <T> Mono<List<T>> insert(Class<T> type, List<T> rows) {
+        return execute(type, rows, "").collectList();
+    }
+
+    /**
+     * Inserts the rows that do not violate a unique constraint
+     * ({@code ON CONFLICT DO NOTHING}).
+     *
+     * @param naturalKey unique key used to match returned rows to the input
+     * @return one entry per input row, empty where the row was skipped
+     */
+    public <T> Mono<List<Optional<T>>> insertIgnoringConflicts(Class<T> type, List<T> rows, Function<T, ?> naturalKey) {
+        return execute(type, rows, " ON CONFLICT DO NOTHING")
+                .collectList()
+                .map(inserted -> {
+                    Map<Object, Deque<T>> byKey = new HashMap<>();
+                    for (T row : inserted) {
+                        byKey.computeIfAbsent(naturalKey.apply(row), k -> new ArrayDeque<>()).add(row);
+                    }
+                    List<Optional<T>> aligned = new ArrayList<>(rows.size());
+                    for (T row : rows) {
+                        Deque<T> matches = byKey.get(naturalKey.apply(row));
+                        aligned.add(Optional.ofNullable(matches == null ? null : matches.poll()));
+                    }
+                    return aligned;
+                });
+    }
+
+    private <T> Flux<T> execute(Class<T> type, List<T> rows, String conflictClause) {
+        if (rows.isEmpty()) {
+            return Flux.empty();
+        }
+
+        RelationalPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        List<Map<SqlIdentifier, Object>> outbound = new ArrayList<>(rows.size());
+        Set<SqlIdentifier> columns = new LinkedHashSet<>();
+        for (T row : rows) {
+            Map<SqlIdentifier, Object> values = valuesOf(row);
+            columns.addAll(values.keySet());
+            outbound.add(values);
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(entity.getTableName().toSql(IdentifierProcessing.NONE))
+                .append(" (");
+        appendColumns(sql, columns);
+        sql.append(") VALUES ");
+
+        Map<String, Object> bindings = new HashMap<>();
+        for (int r = 0; r < outbound.size(); r++) {
+            sql.append(r == 0 ? "(" : ", (");
+            int c = 0;
+            for (SqlIdentifier column : columns) {
+                if (c++ > 0) {
+                    sql.append(", ");
+                }
+                Object value = outbound.get(r).get(column);
+                if (value == null) {
+                    sql.append("DEFAULT");
+                } else {
+                    String name = "p" + bindings.size();
+                    bindings.put(name, Parameters.in(value));
+                    sql.append(':').append(name);
+                }
+            }
+            sql.append(')');
+        }
+        sql.append(conflictClause).append(" RETURNING *");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map((row, metadata) -> converter.read(type, row, metadata)).all();
+    }
+
+    /**
+     * Converted non-null column values of one entity.
+     */
+    @SuppressWarnings("deprecation") // OutboundRow still exposes Spring's deprecated Parameter type
+    private Map<SqlIdentifier, Object> valuesOf(Object row) {
+        OutboundRow written = new OutboundRow();
+        converter.write(row, written);
+        Map<SqlIdentifier, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<SqlIdentifier, Parameter> entry : written.entrySet()) {
+            if (entry.getValue().hasValue()) {
+                values.put(entry.getKey(), entry.getValue().getValue());
+            }
+        }
+        return values;
+    }
+
+    private static void appendColumns(StringBuilder sql, Set<SqlIdentifier> columns) {
+        int c = 0;
+        for (SqlIdentifier column : columns) {
+            if (c++ > 0) {
+                sql.append(", ");
+            }
+            sql.append(column.toSql(IdentifierProcessing.NONE));
+        }
+    }
+}
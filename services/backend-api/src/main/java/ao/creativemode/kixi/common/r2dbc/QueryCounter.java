@@ -0,0 +1,23 @@
+package ao.creativemode.kixi.common.r2dbc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of SQL statements issued on behalf of one request.
+ * Carried in the Reactor context under {@link #CONTEXT_KEY}; statements run by
+ * shared background work (caches, write-behind, reaper) are not attributed to it.
+ */
+public final class QueryCounter {
+
+    public static final Class<QueryCounter> CONTEXT_KEY = QueryCounter.class;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    public int increment() {
+        return count.incrementAndGet();
+    }
+
+    public int get() {
+        return count.get();
+    }
+}
@@ -0,0 +1,51 @@
+package ao.creativemode.kixi.common.r2dbc;
+
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBC proxy listener that counts statements against the current request's
+ * {@link QueryCounter} and logs statements slower than a threshold.
+ * Only the SQL text is logged; bind values are never written, just their count.
+ */
+public final class QueryGuardListener implements ProxyExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryGuardListener.class);
+
+    private final Duration slowQueryThreshold;
+
+    public QueryGuardListener(Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    @Override
+    public void beforeQuery(QueryExecutionInfo execInfo) {
+        ContextView context = execInfo.getValueStore().get(ContextView.class, ContextView.class);
+        if (context != null) {
+            QueryCounter counter = context.getOrDefault(QueryCounter.CONTEXT_KEY, null);
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        Duration elapsed = execInfo.getExecuteDuration();
+        if (elapsed == null || elapsed.compareTo(slowQueryThreshold) < 0) {
+            return;
+        }
+        String sql = execInfo.getQueries().stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "));
+        log.warn("Slow query ({} ms, {} binding set(s) redacted, success={}): {}",
+                elapsed.toMillis(), execInfo.getBindingsSize(), execInfo.isSuccess(), sql);
+    }
+}
@@ -0,0 +1,41 @@
+package ao.creativemode.kixi.common.ratelimit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Routes a rate limit applies to, with a limiter per client address and,
+ * optionally, one per authenticated account.
+ */
+public record RateLimitPolicy(Set<HttpMethod> methods,
+                              List<PathPattern> paths,
+                              RateLimiter perAddress,
+                              RateLimiter perAccount) {
+
+    public static RateLimitPolicy of(Set<HttpMethod> methods, List<String> paths,
+                                     RateLimiter perAddress, RateLimiter perAccount) {
+        List<PathPattern> patterns = paths.stream()
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        return new RateLimitPolicy(Set.copyOf(methods), patterns, perAddress, perAccount);
+    }
+
+    public boolean appliesTo(HttpMethod method, PathContainer path) {
+        if (!methods.contains(method)) {
+            return false;
+        }
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package ao.creativemode.kixi.common.ratelimit;
+
+import ao.creativemode.kixi.common.web.ClientAddresses;
+import ao.creativemode.kixi.common.web.ProblemResponses;
+import ao.creativemode.kixi.common.web.RetryAfter;
+import ao.creativemode.kixi.security.AuthenticatedAccount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Applies the first matching {@link RateLimitPolicy} to each request, keyed by
+ * client address and, when the request is authenticated, by account id.
+ * Rejected requests are answered with 429 and Retry-After before reaching the
+ * handler, so they cost neither a password hash nor a query. The rejection also
+ * names the exhausted quota in the {@code RateLimit-Policy} and {@code RateLimit}
+ * headers of the IETF httpapi draft, so clients can pace themselves.
+ */
+public final class RateLimitWebFilter implements WebFilter {
+
+    static final String RATE_LIMIT_POLICY = "RateLimit-Policy";
+    static final String RATE_LIMIT = "RateLimit";
+
+    private final List<RateLimitPolicy> policies;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitWebFilter(List<RateLimitPolicy> policies, ObjectMapper objectMapper) {
+        this.policies = List.copyOf(policies);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        RateLimitPolicy policy = match(request);
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+
+        if (policy.perAddress() != null) {
+            Duration wait = policy.perAddress().tryAcquire(ClientAddresses.of(request));
+            if (!wait.isZero()) {
+                return tooManyRequests(exchange, policy.perAddress(), wait);
+            }
+        }
+        if (policy.perAccount() == null) {
+            return chain.filter(exchange);
+        }
+        // The account is only known once the authentication filter has run upstream
+        return AuthenticatedAccount.current()
+                .map(account -> policy.perAccount().tryAcquire(account.accountId().toString()))
+                .defaultIfEmpty(Duration.ZERO)
+                .flatMap(wait -> wait.isZero()
+                        ? chain.filter(exchange)
+                        : tooManyRequests(exchange, policy.perAccount(), wait));
+    }
+
+    private RateLimitPolicy match(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (RateLimitPolicy policy : policies) {
+            if (policy.appliesTo(request.getMethod(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, RateLimiter limiter, Duration wait) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RetryAfter.seconds(wait));
+        headers.set(RATE_LIMIT_POLICY, "\"" + limiter.name() + "\";q=" + limiter.limit()
+                + ";w=" + limiter.period().toSeconds());
+        headers.set(RATE_LIMIT, "\"" + limiter.name() + "\";r=0;t=" + RetryAfter.seconds(wait));
+        return ProblemResponses.write(exchange, objectMapper, HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                "Rate limit exceeded, retry after " + RetryAfter.seconds(wait) + " seconds");
+    }
+}
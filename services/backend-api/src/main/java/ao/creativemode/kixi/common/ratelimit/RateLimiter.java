@@ -0,0 +1,86 @@
+package ao.creativemode.kixi.common.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token-bucket rate limiter: at most {@code limit} requests per
+ * {@code period} for each key, with bursts up to {@code limit}.
+ * <p>
+ * Implemented as GCRA: each key holds a single theoretical arrival time,
+ * advanced with a compare-and-set, so a check is one map lookup and one CAS
+ * with no lock and no refill timer. Keys live in a size-bounded Caffeine cache
+ * and are evicted after a period of inactivity, at which point their bucket
+ * would be full again anyway.
+ */
+public final class RateLimiter {
+
+    private final String name;
+    private final int limit;
+    private final Duration period;
+    private final long emissionIntervalNanos;
+    private final long periodNanos;
+    private final Cache<String, AtomicLong> arrivals;
+    private final Counter rejected;
+
+    public RateLimiter(String name, int limit, Duration period, long maxKeys, MeterRegistry registry) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.name = name;
+        this.limit = limit;
+        this.period = period;
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = Math.max(1L, periodNanos / limit);
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(period)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, arrivals, "rate_limit_" + name);
+        this.rejected = Counter.builder("kixi.rate_limit.rejected")
+                .description("Requests rejected by a rate limiter")
+                .tag("limiter", name)
+                .register(registry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public Duration period() {
+        return period;
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return {@link Duration#ZERO} if allowed, otherwise how long until a token is available
+     */
+    public Duration tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(now - periodNanos));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long allowedAt = next - periodNanos;
+            if (allowedAt - now > 0) {
+                rejected.increment();
+                return Duration.ofNanos(allowedAt - now);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ao.creativemode.kixi.common.search;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+
+/**
+ * Search parameters bound from the {@code q} and {@code limit} query parameters.
+ * Terms shorter than three characters are rejected: they produce no trigrams, so
+ * the trigram indexes could not narrow the scan.
+ */
+public record SearchRequest(String q, Integer limit) {
+
+    public static final int MIN_TERM_LENGTH = 3;
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * The trimmed search term, compared by trigram word similarity.
+     */
+    public String term() {
+        String term = q == null ? "" : q.trim();
+        if (term.length() < MIN_TERM_LENGTH) {
+            throw ApiException.badRequest("Search term must have at least " + MIN_TERM_LENGTH + " characters");
+        }
+        return term;
+    }
+
+    /**
+     * The term as a substring {@code ILIKE} pattern, with LIKE wildcards escaped.
+     */
+    public String pattern() {
+        String escaped = term()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    public int size() {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw ApiException.badRequest("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
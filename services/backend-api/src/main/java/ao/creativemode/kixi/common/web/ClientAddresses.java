@@ -0,0 +1,23 @@
+package ao.creativemode.kixi.common.web;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Client address of a request. Behind a proxy this is only the client's address
+ * when forwarded headers are applied ({@code server.forward-headers-strategy}).
+ */
+public final class ClientAddresses {
+
+    private ClientAddresses() {
+    }
+
+    public static String of(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+}
@@ -0,0 +1,11 @@
+package ao.creativemode.kixi.common.web;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest modification time of a listing, read with a single
+ * aggregate query. Any insert, update, soft delete or restore changes at least
+ * one of the two, so the pair is enough to validate a cached listing.
+ */
+public record CollectionStamp(long count, LocalDateTime lastModified) {
+}
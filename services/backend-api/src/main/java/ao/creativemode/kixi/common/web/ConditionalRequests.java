@@ -0,0 +1,43 @@
+package ao.creativemode.kixi.common.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for responses that are expensive to build.
+ * The tag is computed first from a cheap query; when it matches
+ * {@code If-None-Match} the request is answered with 304 and the response
+ * itself is never produced.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @param exchange current exchange, used to read {@code If-None-Match}
+     * @param etag     tag of the current representation
+     * @param response builds the full response, only subscribed when the client copy is stale
+     */
+    public static <T> Mono<ResponseEntity<T>> unlessNotModified(ServerWebExchange exchange,
+                                                                Mono<String> etag,
+                                                                Supplier<Mono<ResponseEntity<T>>> response) {
+        return etag.flatMap(tag -> {
+            if (exchange.checkNotModified(tag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).<T>build());
+            }
+            return response.get().map(entity -> withETag(entity, tag));
+        });
+    }
+
+    private static <T> ResponseEntity<T> withETag(ResponseEntity<T> entity, String tag) {
+        return ResponseEntity.status(entity.getStatusCode())
+                .headers(entity.getHeaders())
+                .eTag(tag)
+                .body(entity.getBody());
+    }
+}
@@ -0,0 +1,83 @@
+package ao.creativemode.kixi.common.web;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Entity tags for conditional requests.
+ * Controllers set the tag on the {@code ResponseEntity}; WebFlux then answers a
+ * matching {@code If-None-Match} with 304 without writing the body. Single entities
+ * carry strong tags derived from their version, which {@code If-Match} on writes
+ * is compared against.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Tag of a single entity, derived from its version.
+     */
+    public static String forVersion(Long version) {
+        return strong(String.valueOf(version));
+    }
+
+    /**
+     * Tag of an entity whose heartbeat column is written behind without bumping its
+     * version. The heartbeat keeps conditional GETs fresh; {@code If-Match} only
+     * compares the version, since a heartbeat never conflicts with an edit.
+     */
+    public static String forVersion(Long version, LocalDateTime heartbeat) {
+        return strong(version + "." + epochMicros(heartbeat));
+    }
+
+    /**
+     * Version named by an {@code If-Match} header, or null when the header is absent
+     * or {@code *}. Weak or foreign tags can never match a current version.
+     *
+     * @throws ApiException 412 when the header names no version of this resource
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw ApiException.preconditionFailed("If-Match does not name a current version");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int heartbeat = value.indexOf('.');
+        try {
+            return Long.parseLong(heartbeat < 0 ? value : value.substring(0, heartbeat));
+        } catch (NumberFormatException e) {
+            throw ApiException.preconditionFailed("If-Match does not name a current version");
+        }
+    }
+
+    /**
+     * Tag of a listing, derived from its row count and latest modification time.
+     */
+    public static String forCollection(CollectionStamp stamp) {
+        return weak(stamp.count() + "-" + epochMicros(stamp.lastModified()));
+    }
+
+    public static String weak(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    public static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /**
+     * Microseconds since the epoch, the precision Postgres stores timestamps with.
+     */
+    public static long epochMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000L;
+    }
+}
@@ -0,0 +1,40 @@
+package ao.creativemode.kixi.common.web;
+
+import ao.creativemode.kixi.common.dto.ProblemDetail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Writes Problem Details responses from WebFilters, which run outside the
+ * controller advice. Headers such as WWW-Authenticate or Retry-After are set
+ * by the caller before writing.
+ */
+public final class ProblemResponses {
+
+    private ProblemResponses() {
+    }
+
+    public static Mono<Void> write(ServerWebExchange exchange, ObjectMapper objectMapper,
+                                   HttpStatus status, String title, String detail) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        ProblemDetail problem = new ProblemDetail(null, title, status.value(), detail,
+                Map.of("instance", exchange.getRequest().getPath().value()));
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,156 @@
+package ao.creativemode.kixi.common.web;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the SQL statements each request issues and flags requests over budget,
+ * which is how N+1 loading shows up.
+ * <ul>
+ *   <li>{@link Mode#WARN} logs the endpoint and its statement count.</li>
+ *   <li>{@link Mode#FAIL} (for tests and CI) answers with 500 instead when the
+ *       budget is exceeded before the response is committed: when the first body
+ *       buffer is written, when the response is completed without a body (204), or
+ *       when the handler finishes without writing. A streamed body that goes over
+ *       budget after it was committed is aborted after its last buffer. Bodies are
+ *       checked as they pass, never buffered.</li>
+ * </ul>
+ */
+public final class QueryBudgetWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetWebFilter.class);
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private final int budget;
+    private final Mode mode;
+    private final ObjectMapper objectMapper;
+
+    public QueryBudgetWebFilter(int budget, Mode mode, ObjectMapper objectMapper) {
+        this.budget = budget;
+        this.mode = mode;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (mode == Mode.OFF) {
+            return chain.filter(exchange);
+        }
+
+        QueryCounter counter = new QueryCounter();
+        Mono<Void> handled;
+        if (mode == Mode.FAIL) {
+            BudgetEnforcingResponse response = new BudgetEnforcingResponse(exchange, counter);
+            handled = chain.filter(exchange.mutate().response(response).build())
+                    // Handlers returning Mono<Void> leave the response to be completed later
+                    .then(Mono.defer(response::completeIfOverBudget));
+        } else {
+            handled = chain.filter(exchange);
+        }
+
+        return handled
+                .doFinally(signal -> {
+                    if (counter.get() > budget) {
+                        log.warn("{} issued {} SQL statements (budget {})",
+                                endpoint(exchange), counter.get(), budget);
+                    }
+                })
+                .contextWrite(context -> context.put(QueryCounter.CONTEXT_KEY, counter));
+    }
+
+    private static String endpoint(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : exchange.getRequest().getPath().value();
+        return exchange.getRequest().getMethod() + " " + path;
+    }
+
+    private final class BudgetEnforcingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final QueryCounter counter;
+
+        BudgetEnforcingResponse(ServerWebExchange exchange, QueryCounter counter) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.counter = counter;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            // Each buffer is checked before it reaches the delegate, which commits on
+            // the first one; a stream is checked once more after its last buffer.
+            Publisher<? extends DataBuffer> checked = body instanceof Mono<? extends DataBuffer> mono
+                    ? mono.doOnNext(this::checkBeforeWrite)
+                    : Flux.from(body)
+                            .doOnNext(this::checkBeforeWrite)
+                            .concatWith(Mono.defer(() -> overBudget()
+                                    ? Mono.error(new BudgetExceededException(overBudgetError()))
+                                    : Mono.empty()));
+            return getDelegate().writeWith(checked)
+                    .onErrorResume(BudgetExceededException.class,
+                            e -> isCommitted() ? Mono.error(e.getCause()) : writeProblem());
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return overBudget() && !isCommitted() ? writeProblem() : getDelegate().setComplete();
+        }
+
+        Mono<Void> completeIfOverBudget() {
+            return overBudget() && !isCommitted() ? writeProblem() : Mono.empty();
+        }
+
+        private void checkBeforeWrite(DataBuffer buffer) {
+            if (overBudget()) {
+                DataBufferUtils.release(buffer);
+                throw new BudgetExceededException(overBudgetError());
+            }
+        }
+
+        private boolean overBudget() {
+            return counter.get() > budget;
+        }
+
+        private Mono<Void> writeProblem() {
+            // Written on the undecorated response, so it is not checked again
+            return ProblemResponses.write(exchange, objectMapper, HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Query Budget Exceeded", overBudgetError().getMessage());
+        }
+
+        private ApiException overBudgetError() {
+            return new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Query Budget Exceeded",
+                    endpoint(exchange) + " issued " + counter.get() + " SQL statements, budget is " + budget);
+        }
+    }
+
+    /**
+     * Marks a budget failure raised inside the body stream, so it can be answered
+     * with a problem response while the response is still uncommitted.
+     */
+    private static final class BudgetExceededException extends RuntimeException {
+
+        BudgetExceededException(ApiException cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+}
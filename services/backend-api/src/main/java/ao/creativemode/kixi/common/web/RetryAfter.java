@@ -0,0 +1,18 @@
+package ao.creativemode.kixi.common.web;
+
+import java.time.Duration;
+
+/**
+ * Formats Retry-After values as whole delay-seconds, rounded up and at least 1.
+ */
+public final class RetryAfter {
+
+    private RetryAfter() {
+    }
+
+    public static String seconds(Duration delay) {
+        long nanos = Math.max(0L, delay.toNanos());
+        long seconds = (nanos + 999_999_999L) / 1_000_000_000L;
+        return Long.toString(Math.max(1L, seconds));
+    }
+}
@@ -0,0 +1,44 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.common.concurrency.ConcurrencyLimitWebFilter;
+import ao.creativemode.kixi.common.concurrency.VegasLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-replica adaptive concurrency limits, applied last before the handlers
+ * so rate-limited and unauthenticated requests never take a slot.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 40)
+    public ConcurrencyLimitWebFilter concurrencyLimitWebFilter(
+            MeterRegistry registry,
+            ObjectMapper objectMapper,
+            @Value("${kixi.concurrency.read.initial-limit:50}") int readInitial,
+            @Value("${kixi.concurrency.read.min-limit:10}") int readMin,
+            @Value("${kixi.concurrency.read.max-limit:500}") int readMax,
+            @Value("${kixi.concurrency.write.initial-limit:20}") int writeInitial,
+            @Value("${kixi.concurrency.write.min-limit:5}") int writeMin,
+            @Value("${kixi.concurrency.write.max-limit:200}") int writeMax,
+            @Value("${kixi.concurrency.excluded-paths:/actuator/**}") List<String> excludedPaths,
+            @Value("${kixi.concurrency.retry-after:PT1S}") Duration retryAfter) {
+        return new ConcurrencyLimitWebFilter(
+                new VegasLimiter("read", readInitial, readMin, readMax),
+                new VegasLimiter("write", writeInitial, writeMin, writeMax),
+                excludedPaths,
+                retryAfter,
+                objectMapper,
+                registry);
+    }
+}
@@ -0,0 +1,79 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.common.metrics.TimedInvocationInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Wraps every Spring Data repository and every {@code @Service} in a
+ * {@link TimedInvocationInterceptor}, producing the {@code kixi.repository} and
+ * {@code kixi.service} timers. Together they show where a slow request spends
+ * its time: in a query, in the service logic around it, or outside both.
+ */
+@Component
+public class InvocationMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String BASE_PACKAGE = "ao.creativemode.kixi";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public InvocationMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository<?, ?>) {
+            String entity = repositoryEntity(bean);
+            return entity == null ? bean : advise(bean, new TimedInvocationInterceptor(registry, "kixi.repository", entity));
+        }
+
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (targetClass.getName().startsWith(BASE_PACKAGE)
+                && AnnotatedElementUtils.hasAnnotation(targetClass, Service.class)) {
+            String entity = entityName(targetClass.getSimpleName(), "Service");
+            return advise(bean, new TimedInvocationInterceptor(registry, "kixi.service", entity));
+        }
+        return bean;
+    }
+
+    private Object advise(Object bean, TimedInvocationInterceptor interceptor) {
+        // Repositories are already proxies; the timer goes in front of their own advice
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+    }
+
+    private static String repositoryEntity(Object bean) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            if (type.getName().startsWith(BASE_PACKAGE) && Repository.class.isAssignableFrom(type)) {
+                return entityName(type.getSimpleName(), "Repository");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code SchoolYearService} becomes {@code school_year}.
+     */
+    private static String entityName(String simpleName, String suffix) {
+        String base = simpleName.endsWith(suffix)
+                ? simpleName.substring(0, simpleName.length() - suffix.length())
+                : simpleName;
+        return base.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
@@ -0,0 +1,41 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.common.r2dbc.QueryGuardListener;
+import ao.creativemode.kixi.common.web.QueryBudgetWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+
+/**
+ * Slow-query log and per-request statement budget.
+ * The listener is installed on every pooled connection through the same
+ * decorator hook as query tracing.
+ */
+@Configuration
+public class QueryGuardConfig {
+
+    @Bean
+    public ConnectionFactoryDecorator queryGuardDecorator(
+            @Value("${kixi.r2dbc.slow-query-threshold:PT0.5S}") Duration slowQueryThreshold) {
+        QueryGuardListener listener = new QueryGuardListener(slowQueryThreshold);
+        return connectionFactory -> ProxyConnectionFactory.builder(connectionFactory)
+                .listener(listener)
+                .build();
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public QueryBudgetWebFilter queryBudgetWebFilter(
+            @Value("${kixi.r2dbc.query-budget.per-request:20}") int budget,
+            @Value("${kixi.r2dbc.query-budget.mode:warn}") String mode,
+            ObjectMapper objectMapper) {
+        return new QueryBudgetWebFilter(budget, QueryBudgetWebFilter.Mode.valueOf(mode.toUpperCase()), objectMapper);
+    }
+}
@@ -0,0 +1,82 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.common.r2dbc.AcquireTimedConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Explicit R2DBC connection pool, configured from {@code spring.r2dbc.*}.
+ * Replaces the pool Spring Boot would create so that acquire latency can be
+ * recorded and the pool filled before the server accepts traffic.
+ */
+@Configuration
+public class R2dbcPoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(R2dbcPoolConfig.class);
+
+    // Spring Boot tags pool gauges with the bean name minus "ConnectionFactory"
+    private static final String POOL_NAME = "kixi";
+
+    @Bean(destroyMethod = "dispose")
+    public AcquireTimedConnectionFactory kixiConnectionFactory(R2dbcProperties properties,
+                                                              MeterRegistry registry,
+                                                              ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        // Decorators (e.g. the query observation proxy) wrap each physical connection
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .decorators(decorators.orderedStream().toList())
+                .build();
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(POOL_NAME)
+                .initialSize(pool.getInitialSize())
+                .minIdle(pool.getMinIdle())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .maxAcquireTime(pool.getMaxAcquireTime())
+                .maxCreateConnectionTime(pool.getMaxCreateConnectionTime())
+                .maxValidationTime(pool.getMaxValidationTime())
+                .validationDepth(pool.getValidationDepth());
+        if (pool.getValidationQuery() != null) {
+            builder.validationQuery(pool.getValidationQuery());
+        }
+        return new AcquireTimedConnectionFactory(new ConnectionPool(builder.build()), POOL_NAME, registry);
+    }
+
+    /**
+     * Opens {@code initial-size} connections before the web server starts, so the
+     * first requests do not pay for TCP, TLS and authentication round trips.
+     * A database that is not reachable yet only delays startup by the timeout.
+     */
+    @Bean
+    public SmartInitializingSingleton connectionPoolWarmup(
+            AcquireTimedConnectionFactory connectionFactory,
+            @Value("${kixi.r2dbc.pool.warmup-timeout:PT10S}") Duration timeout) {
+        return () -> connectionFactory.warmup()
+                .timeout(timeout)
+                .doOnNext(opened -> log.info("Connection pool warmed up with {} connections", opened))
+                .onErrorResume(e -> {
+                    log.warn("Connection pool warm-up failed: {}", e.toString());
+                    return Mono.empty();
+                })
+                .block();
+    }
+}
@@ -0,0 +1,65 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.common.ratelimit.RateLimitPolicy;
+import ao.creativemode.kixi.common.ratelimit.RateLimitWebFilter;
+import ao.creativemode.kixi.common.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-replica rate limits for authentication and write endpoints.
+ * The filter runs after authentication so writes can also be limited per account.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    private static final Set<HttpMethod> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 30)
+    public RateLimitWebFilter rateLimitWebFilter(
+            MeterRegistry registry,
+            ObjectMapper objectMapper,
+            @Value("${kixi.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${kixi.rate-limit.auth.paths:/api/v1/auth/**}") List<String> authPaths,
+            @Value("${kixi.rate-limit.auth.per-address.limit:20}") int authPerAddress,
+            @Value("${kixi.rate-limit.auth.per-address.period:PT1M}") Duration authPerAddressPeriod,
+            @Value("${kixi.rate-limit.write.paths:/api/v1/**}") List<String> writePaths,
+            @Value("${kixi.rate-limit.write.per-address.limit:300}") int writePerAddress,
+            @Value("${kixi.rate-limit.write.per-address.period:PT1M}") Duration writePerAddressPeriod,
+            @Value("${kixi.rate-limit.write.per-account.limit:120}") int writePerAccount,
+            @Value("${kixi.rate-limit.write.per-account.period:PT1M}") Duration writePerAccountPeriod) {
+        // First match wins, so the narrower authentication policy comes first
+        List<RateLimitPolicy> policies = List.of(
+                RateLimitPolicy.of(Set.of(HttpMethod.POST), authPaths,
+                        new RateLimiter("auth_address", authPerAddress, authPerAddressPeriod, maxKeys, registry),
+                        null),
+                RateLimitPolicy.of(WRITE_METHODS, writePaths,
+                        new RateLimiter("write_address", writePerAddress, writePerAddressPeriod, maxKeys, registry),
+                        new RateLimiter("write_account", writePerAccount, writePerAccountPeriod, maxKeys, registry)));
+        return new RateLimitWebFilter(policies, objectMapper);
+    }
+
+    /**
+     * Login attempts per username, whichever address they come from.
+     */
+    @Bean
+    public RateLimiter loginRateLimiter(
+            MeterRegistry registry,
+            @Value("${kixi.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${kixi.rate-limit.login.per-username.limit:10}") int perUsername,
+            @Value("${kixi.rate-limit.login.per-username.period:PT5M}") Duration perUsernamePeriod) {
+        return new RateLimiter("login_username", perUsername, perUsernamePeriod, maxKeys, registry);
+    }
+}
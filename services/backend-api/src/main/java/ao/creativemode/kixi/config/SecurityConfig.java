@@ -0,0 +1,36 @@
+package ao.creativemode.kixi.config;
+
+import ao.creativemode.kixi.security.JwtAuthenticationWebFilter;
+import ao.creativemode.kixi.security.JwtTokens;
+import ao.creativemode.kixi.security.TokenRevocationList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.List;
+
+/**
+ * Stateless JWT authentication (ADR-0004).
+ * Runs after the query budget filter, ahead of every handler.
+ */
+@Configuration
+public class SecurityConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 20)
+    public JwtAuthenticationWebFilter jwtAuthenticationWebFilter(
+            JwtTokens tokens,
+            TokenRevocationList revocations,
+            ObjectMapper objectMapper,
+            @Value("${kixi.security.auth.mode:permissive}") String mode,
+            @Value("${kixi.security.auth.public-paths:/api/v1/auth/**,/actuator/**}") List<String> publicPaths) {
+        return new JwtAuthenticationWebFilter(tokens,
+                revocations,
+                JwtAuthenticationWebFilter.Mode.valueOf(mode.toUpperCase()),
+                publicPaths,
+                objectMapper);
+    }
+}
@@ -1,15 +1,25 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.search.SearchRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.accounts.AccountRequest;
 import ao.creativemode.kixi.dto.accounts.AccountResponse;
 import ao.creativemode.kixi.service.AccountService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -17,40 +27,46 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class AccountController {
 
     private final AccountService service;
+    private final Validator validator;
 
-    public AccountController(AccountService service) {
+    public AccountController(AccountService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) accounts.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<AccountResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<AccountResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.findActiveStamp().map(ETags::forCollection),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, AccountResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) accounts.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<AccountResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<AccountResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, AccountResponse::id);
     }
 
     /**
      * Retrieves accounts filtered by active status.
      */
     @GetMapping("/active")
-    public Mono<ResponseEntity<List<AccountResponse>>> listByActive(
+    public ResponseEntity<Flux<AccountResponse>> listByActive(
             @RequestParam(defaultValue = "true") Boolean active) {
-        return service.findAllByActive(active)
-                .collectList()
-                .map(ResponseEntity::ok);
+        return ResponseEntity.ok(service.findAllByActive(active));
+    }
+
+    /**
+     * Searches active accounts by partial username or email, best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Flux<AccountResponse>> search(SearchRequest search) {
+        return ResponseEntity.ok(service.search(search));
     }
 
     /**
@@ -59,7 +75,9 @@ public class AccountController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<AccountResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version(), found.lastLogin()))
+                        .body(found));
     }
 
     /**
@@ -68,7 +86,9 @@ public class AccountController {
     @GetMapping("/username/{username}")
     public Mono<ResponseEntity<AccountResponse>> getByUsername(@PathVariable String username) {
         return service.findByUsername(username)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version(), found.lastLogin()))
+                        .body(found));
     }
 
     /**
@@ -92,14 +112,43 @@ public class AccountController {
 
     /**
      * Updates an existing active account.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<AccountResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody AccountRequest request) {
+            @Valid @RequestBody AccountRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version(), updated.lastLogin()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates accounts in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<AccountResponse>>> createBatch(@RequestBody Flux<AccountRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
+
+    /**
+     * Soft-deletes accounts in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted accounts in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
@@ -1,7 +1,5 @@
 package ao.creativemode.kixi.controller;
 
-import java.util.List;
-
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import ao.creativemode.kixi.dto.roles.RoleResponse;
 import ao.creativemode.kixi.service.AccountRoleService;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -29,10 +28,8 @@ public class AccountRoleController {
      * Lists the roles assigned to the account.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<RoleResponse>>> listRolesByAccount(@PathVariable Long accountId) {
-        return accountRoleService.findRolesByAccountId(accountId)
-                .collectList()
-                .map(ResponseEntity::ok);
+    public ResponseEntity<Flux<RoleResponse>> listRolesByAccount(@PathVariable Long accountId) {
+        return ResponseEntity.ok(accountRoleService.findRolesByAccountId(accountId));
     }
 
     /**
@@ -0,0 +1,57 @@
+package ao.creativemode.kixi.controller;
+
+import ao.creativemode.kixi.common.web.ClientAddresses;
+import ao.creativemode.kixi.dto.auth.LoginRequest;
+import ao.creativemode.kixi.dto.auth.LogoutRequest;
+import ao.creativemode.kixi.dto.auth.RefreshRequest;
+import ao.creativemode.kixi.dto.auth.TokenResponse;
+import ao.creativemode.kixi.security.JwtTokens;
+import ao.creativemode.kixi.service.AuthService;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+public class AuthController {
+
+    private final AuthService service;
+
+    public AuthController(AuthService service) {
+        this.service = service;
+    }
+
+    /**
+     * Authenticates with username and password, opens a session and returns a bearer token pair.
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<TokenResponse>> login(@Valid @RequestBody LoginRequest request, ServerWebExchange exchange) {
+        return service.login(request, ClientAddresses.of(exchange.getRequest()))
+                .map(tokens -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(tokens));
+    }
+
+    /**
+     * Exchanges a refresh token for a new token pair.
+     */
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<TokenResponse>> refresh(@Valid @RequestBody RefreshRequest request) {
+        return service.refresh(request)
+                .map(tokens -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(tokens));
+    }
+
+    /**
+     * Revokes the bearer access token and, if given, its refresh token.
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) LogoutRequest request) {
+        return service.logout(JwtTokens.bearerToken(authorization), request != null ? request.refreshToken() : null)
+                .thenReturn(ResponseEntity.status(NO_CONTENT).build());
+    }
+}
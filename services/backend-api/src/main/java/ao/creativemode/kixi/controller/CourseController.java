@@ -1,15 +1,26 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.cache.CatalogCache;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.search.SearchRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.courses.CourseRequest;
 import ao.creativemode.kixi.dto.courses.CourseResponse;
 import ao.creativemode.kixi.service.CourseService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -17,29 +28,37 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class CourseController {
 
     private final CourseService service;
+    private final Validator validator;
 
-    public CourseController(CourseService service) {
+    public CourseController(CourseService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) courses.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<CourseResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<CourseResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.activeSnapshot().map(CatalogCache.Snapshot::etag),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, CourseResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) courses.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<CourseResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<CourseResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, CourseResponse::id);
+    }
+
+    /**
+     * Searches active courses by partial code or name, best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Flux<CourseResponse>> search(SearchRequest search) {
+        return ResponseEntity.ok(service.search(search));
     }
 
     /**
@@ -48,7 +67,9 @@ public class CourseController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<CourseResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version()))
+                        .body(found));
     }
 
     /**
@@ -72,14 +93,43 @@ public class CourseController {
 
     /**
      * Updates an existing active course.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<CourseResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody CourseRequest request) {
+            @Valid @RequestBody CourseRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates courses in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<CourseResponse>>> createBatch(@RequestBody Flux<CourseRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
+
+    /**
+     * Soft-deletes courses in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted courses in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
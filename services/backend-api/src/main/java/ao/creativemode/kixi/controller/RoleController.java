@@ -1,15 +1,25 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.cache.CatalogCache;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.roles.RoleRequest;
 import ao.creativemode.kixi.dto.roles.RoleResponse;
 import ao.creativemode.kixi.service.RoleService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -17,29 +27,29 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class RoleController {
 
     private final RoleService service;
+    private final Validator validator;
 
-    public RoleController(RoleService service) {
+    public RoleController(RoleService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) roles.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<RoleResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<RoleResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.activeSnapshot().map(CatalogCache.Snapshot::etag),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, RoleResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) roles.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<RoleResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<RoleResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, RoleResponse::id);
     }
 
     /**
@@ -48,7 +58,9 @@ public class RoleController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<RoleResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version()))
+                        .body(found));
     }
 
     /**
@@ -72,14 +84,43 @@ public class RoleController {
 
     /**
      * Updates an existing active role.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<RoleResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody RoleRequest request) {
+            @Valid @RequestBody RoleRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates roles in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<RoleResponse>>> createBatch(@RequestBody Flux<RoleRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+    /**
+     * Soft-deletes roles in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted roles in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
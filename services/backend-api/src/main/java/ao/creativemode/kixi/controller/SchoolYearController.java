@@ -1,15 +1,25 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.cache.CatalogCache;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.schoolyears.SchoolYearRequest;
 import ao.creativemode.kixi.dto.schoolyears.SchoolYearResponse;
 import ao.creativemode.kixi.service.SchoolYearService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -17,29 +27,29 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class SchoolYearController {
 
     private final SchoolYearService service;
+    private final Validator validator;
 
-    public SchoolYearController(SchoolYearService service) {
+    public SchoolYearController(SchoolYearService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) school years.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<SchoolYearResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<SchoolYearResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.activeSnapshot().map(CatalogCache.Snapshot::etag),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, SchoolYearResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) school years.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<SchoolYearResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<SchoolYearResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, SchoolYearResponse::id);
     }
 
     /**
@@ -48,7 +58,9 @@ public class SchoolYearController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<SchoolYearResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version()))
+                        .body(found));
     }
 
     /**
@@ -72,14 +84,43 @@ public class SchoolYearController {
 
     /**
      * Updates an existing active school year.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<SchoolYearResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody SchoolYearRequest request) {
+            @Valid @RequestBody SchoolYearRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates school years in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<SchoolYearResponse>>> createBatch(@RequestBody Flux<SchoolYearRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+    /**
+     * Soft-deletes school years in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted school years in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
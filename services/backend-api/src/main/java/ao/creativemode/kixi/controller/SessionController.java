@@ -1,15 +1,24 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.sessions.SessionRequest;
 import ao.creativemode.kixi.dto.sessions.SessionResponse;
 import ao.creativemode.kixi.service.SessionService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -17,29 +26,29 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class SessionController {
 
     private final SessionService service;
+    private final Validator validator;
 
-    public SessionController(SessionService service) {
+    public SessionController(SessionService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) sessions.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<SessionResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<SessionResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.findActiveStamp().map(ETags::forCollection),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, SessionResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) sessions.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<SessionResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<SessionResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, SessionResponse::id);
     }
 
     /**
@@ -48,7 +57,9 @@ public class SessionController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<SessionResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version(), found.lastUsed()))
+                        .body(found));
     }
 
     /**
@@ -72,14 +83,43 @@ public class SessionController {
 
     /**
      * Updates an existing active session.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<SessionResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody SessionRequest request) {
+            @Valid @RequestBody SessionRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version(), updated.lastUsed()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates sessions in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<SessionResponse>>> createBatch(@RequestBody Flux<SessionRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+    /**
+     * Soft-deletes sessions in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted sessions in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
@@ -1,13 +1,23 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.cache.CatalogCache;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.term.TermRequest;
 import ao.creativemode.kixi.dto.term.TermResponse;
 import ao.creativemode.kixi.service.TermService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -15,24 +25,31 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class TermController {
 
     private final TermService service;
+    private final Validator validator;
 
-    public TermController(TermService service) {
+    public TermController(TermService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     @GetMapping
-    public Mono<ResponseEntity<List<TermResponse>>> listAllActive() {
-        return service.findAllActive().collectList().map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<TermResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.activeSnapshot().map(CatalogCache.Snapshot::etag),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, TermResponse::id));
     }
 
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<TermResponse>>> listTrashed() {
-        return service.findAllDeleted().collectList().map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<TermResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, TermResponse::id);
     }
 
     @GetMapping("/{id}")
     public Mono<ResponseEntity<TermResponse>> getById(@PathVariable Long id) {
-        return service.findByIdActive(id).map(ResponseEntity::ok);
+        return service.findByIdActive(id)
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version()))
+                        .body(found));
     }
 
     @PostMapping
@@ -41,8 +58,25 @@ public class TermController {
     }
 
     @PutMapping("/{id}")
-    public Mono<ResponseEntity<TermResponse>> update(@PathVariable Long id, @Valid @RequestBody TermRequest request) {
-        return service.update(id, request).map(ResponseEntity::ok);
+    public Mono<ResponseEntity<TermResponse>> update(@PathVariable Long id, @Valid @RequestBody TermRequest request,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok().eTag(ETags.forVersion(updated.version())).body(updated));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<TermResponse>>> createBatch(@RequestBody Flux<TermRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
+
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     @DeleteMapping("/{id}")
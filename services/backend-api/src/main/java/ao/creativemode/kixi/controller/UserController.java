@@ -1,16 +1,26 @@
 package ao.creativemode.kixi.controller;
 
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.pagination.CursorPages;
+import ao.creativemode.kixi.common.pagination.CursorRequest;
+import ao.creativemode.kixi.common.search.SearchRequest;
+import ao.creativemode.kixi.common.web.ConditionalRequests;
+import ao.creativemode.kixi.common.web.ETags;
 import ao.creativemode.kixi.dto.users.UserRequest;
 import ao.creativemode.kixi.dto.users.UserResponse;
 import ao.creativemode.kixi.dto.users.UserResponseWithAccount;
 import ao.creativemode.kixi.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.net.URI;
-import java.util.List;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 @RestController
@@ -18,29 +28,37 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 public class UserController {
 
     private final UserService service;
+    private final Validator validator;
 
-    public UserController(UserService service) {
+    public UserController(UserService service, Validator validator) {
         this.service = service;
+        this.validator = validator;
     }
 
     /**
      * Retrieves all active (non-deleted) users.
      */
     @GetMapping
-    public Mono<ResponseEntity<List<UserResponse>>> listAllActive() {
-        return service.findAllActive()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<UserResponse>>> listAllActive(CursorRequest cursor, ServerWebExchange exchange) {
+        return ConditionalRequests.unlessNotModified(exchange,
+                service.findActiveStamp().map(ETags::forCollection),
+                () -> CursorPages.respond(cursor, service::findAllActive, service::findActivePage, UserResponse::id));
     }
 
     /**
      * Retrieves all soft-deleted (trashed) users.
      */
     @GetMapping("/trash")
-    public Mono<ResponseEntity<List<UserResponse>>> listTrashed() {
-        return service.findAllDeleted()
-                .collectList()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<UserResponse>>> listTrashed(CursorRequest cursor) {
+        return CursorPages.respond(cursor, service::findAllDeleted, service::findDeletedPage, UserResponse::id);
+    }
+
+    /**
+     * Searches active users by partial first or last name, best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Flux<UserResponse>> search(SearchRequest search) {
+        return ResponseEntity.ok(service.search(search));
     }
 
     /**
@@ -49,7 +67,9 @@ public class UserController {
     @GetMapping("/{id}")
     public Mono<ResponseEntity<UserResponse>> getById(@PathVariable Long id) {
         return service.findByIdActive(id)
-                .map(ResponseEntity::ok);
+                .map(found -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(found.version()))
+                        .body(found));
     }
 
     /**
@@ -65,10 +85,8 @@ public class UserController {
      * Retrieves all active users by account ID.
      */
     @GetMapping("/account/{accountId}")
-    public Mono<ResponseEntity<List<UserResponse>>> getByAccountId(@PathVariable Long accountId) {
-        return service.findByAccountIdActive(accountId)
-                .collectList()
-                .map(ResponseEntity::ok);
+    public ResponseEntity<Flux<UserResponse>> getByAccountId(@PathVariable Long accountId) {
+        return ResponseEntity.ok(service.findByAccountIdActive(accountId));
     }
 
     /**
@@ -92,14 +110,43 @@ public class UserController {
 
     /**
      * Updates an existing active user.
+     * A strong ETag from a previous read may be sent as If-Match; a stale one is answered with 412.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<UserResponse>> update(
             @PathVariable Long id,
-            @Valid @RequestBody UserRequest request) {
+            @Valid @RequestBody UserRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        return service.update(id, request)
-                .map(ResponseEntity::ok);
+        return service.update(id, request, ETags.expectedVersion(ifMatch))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(ETags.forVersion(updated.version()))
+                        .body(updated));
+    }
+
+    /**
+     * Creates users in bulk from a JSON array or NDJSON stream.
+     * Each item is answered with its own status, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Flux<BatchResult<UserResponse>>> createBatch(@RequestBody Flux<UserRequest> requests) {
+        return ResponseEntity.ok(Batches.process(requests, validator, service::createBatch));
+    }
+
+    /**
+     * Soft-deletes users in bulk by ID.
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Flux<BatchResult<Long>>> softDeleteBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::softDeleteBatch));
+    }
+
+    /**
+     * Restores soft-deleted users in bulk by ID.
+     */
+    @PostMapping("/batch/restore")
+    public ResponseEntity<Flux<BatchResult<Long>>> restoreBatch(@RequestBody Flux<Long> ids) {
+        return ResponseEntity.ok(Batches.process(ids, service::restoreBatch));
     }
 
     /**
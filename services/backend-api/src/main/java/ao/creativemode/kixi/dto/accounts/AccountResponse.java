@@ -11,5 +11,6 @@ public record AccountResponse(
     LocalDateTime lastLogin,
     LocalDateTime createdAt,
     LocalDateTime updatedAt,
-    LocalDateTime deletedAt
+    LocalDateTime deletedAt,
+    Long version
 ) {}
@@ -0,0 +1,11 @@
+package ao.creativemode.kixi.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record LoginRequest(
+    @NotBlank(message = "Username is required")
+    String username,
+
+    @NotBlank(message = "Password is required")
+    String password
+) {}
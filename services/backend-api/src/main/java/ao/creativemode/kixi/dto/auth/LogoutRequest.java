@@ -0,0 +1,5 @@
+package ao.creativemode.kixi.dto.auth;
+
+public record LogoutRequest(
+    String refreshToken
+) {}
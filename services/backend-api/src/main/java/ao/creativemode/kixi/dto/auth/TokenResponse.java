@@ -0,0 +1,20 @@
+package ao.creativemode.kixi.dto.auth;
+
+import ao.creativemode.kixi.security.TokenPair;
+
+public record TokenResponse(
+    String tokenType,
+    String accessToken,
+    long expiresIn,
+    String refreshToken,
+    long refreshExpiresIn
+) {
+    public static TokenResponse bearer(TokenPair tokens) {
+        return new TokenResponse(
+                "Bearer",
+                tokens.accessToken(),
+                tokens.accessTtl().toSeconds(),
+                tokens.refreshToken(),
+                tokens.refreshTtl().toSeconds());
+    }
+}
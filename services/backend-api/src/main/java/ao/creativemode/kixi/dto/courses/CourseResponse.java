@@ -9,5 +9,6 @@ public record CourseResponse(
     String description,
     LocalDateTime createdAt,
     LocalDateTime updatedAt,
-    LocalDateTime deletedAt
+    LocalDateTime deletedAt,
+    Long version
 ) {}
@@ -8,5 +8,6 @@ public record RoleResponse(
         String description,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ) {}
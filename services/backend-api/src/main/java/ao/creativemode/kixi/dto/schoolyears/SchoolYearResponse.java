@@ -8,5 +8,6 @@ public record SchoolYearResponse(
         Integer endYear,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ) {}
\ No newline at end of file
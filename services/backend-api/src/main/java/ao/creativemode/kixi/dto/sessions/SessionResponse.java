@@ -11,5 +11,6 @@ public record SessionResponse(
         LocalDateTime lastUsed,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ){}
\ No newline at end of file
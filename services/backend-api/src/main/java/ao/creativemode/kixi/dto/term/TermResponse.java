@@ -8,5 +8,6 @@ public record TermResponse(
         String name,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ) {}
\ No newline at end of file
@@ -10,5 +10,6 @@ public record UserResponse(
         String photo,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ) {}
@@ -11,5 +11,6 @@ public record UserResponseWithAccount(
         String photo,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        LocalDateTime deletedAt
+        LocalDateTime deletedAt,
+        Long version
 ) {}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -49,6 +50,10 @@ public class Account {
     @Column("deleted_at")
     private LocalDateTime deletedAt;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     public void markAsDeleted() {
         this.deletedAt = LocalDateTime.now();
     }
@@ -3,6 +3,7 @@ package ao.creativemode.kixi.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -34,6 +35,10 @@ public class Role {
     @Column("deleted_at")
     private LocalDateTime deletedAt;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     public Role() {
     }
 
@@ -3,6 +3,7 @@ package ao.creativemode.kixi.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import lombok.Data;
@@ -32,6 +33,10 @@ public class SchoolYear {
     @Column("deleted_at")
     private LocalDateTime deletedAt;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     public SchoolYear() {
     }
 
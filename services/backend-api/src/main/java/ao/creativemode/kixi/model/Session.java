@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Transient;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -28,6 +29,9 @@ public class Session {
     @Column("token")
     private String token;
 
+    @Column("token_hash")
+    private byte[] tokenHash;
+
     @Column("ip_address")
     private String ipAddress;
 
@@ -48,6 +52,10 @@ public class Session {
     @Column("deleted_at")
     private LocalDateTime deletedAt;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     @Transient
     private Account account;
 
@@ -1,23 +1,71 @@
 package ao.creativemode.kixi.repository;
 
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.dto.accounts.AccountResponse;
 import ao.creativemode.kixi.model.Account;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface AccountRepository extends ReactiveCrudRepository<Account, Long> {
 
+    // Columns of AccountResponse; listings never read password_hash
+    String RESPONSE_COLUMNS = "id, username, email, email_verified, active, last_login, created_at, updated_at, deleted_at, version";
+
     Mono<Account> findByIdAndDeletedAtIsNull(Long id);
 
-    Flux<Account> findAllByDeletedAtIsNull();
+    @Query("SELECT * FROM accounts WHERE id = ANY(:ids) AND deleted_at IS NULL")
+    Flux<Account> findAllByIdInAndDeletedAtIsNull(Long[] ids);
 
-    Flux<Account> findAllByActiveAndDeletedAtIsNull(Boolean active);
+    Flux<AccountResponse> findAllByDeletedAtIsNull();
 
-    Flux<Account> findAllByDeletedAtIsNotNull();
+    Flux<AccountResponse> findAllByActiveAndDeletedAtIsNull(Boolean active);
 
-    Mono<Account> findByIdAndDeletedAtIsNotNull(Long id);
+    Flux<AccountResponse> findAllByDeletedAtIsNotNull();
 
     Mono<Account> findByUsernameAndDeletedAtIsNull(String username);
 
     Mono<Account> findByUsernameAndIdNotAndDeletedAtIsNull(String username, Long id);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM accounts WHERE deleted_at IS NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<AccountResponse> findActivePage(long after, int limit);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM accounts WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<AccountResponse> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE accounts SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE accounts SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE accounts SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE accounts SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM accounts WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+
+    @Query("SELECT count(*) AS count, max(greatest(updated_at, last_login)) AS last_modified FROM accounts WHERE deleted_at IS NULL")
+    Mono<CollectionStamp> findActiveStamp();
+
+    /**
+     * Active accounts whose username or email contains the term, or resembles it,
+     * best matches first. Served by the trigram index on the same expression.
+     */
+    @Query("SELECT " + RESPONSE_COLUMNS + """
+             FROM accounts
+            WHERE deleted_at IS NULL
+              AND ((username || ' ' || email) ILIKE :pattern OR :term <% (username || ' ' || email))
+            ORDER BY word_similarity(:term, username || ' ' || email) DESC, id
+            LIMIT :limit
+            """)
+    Flux<AccountResponse> search(String term, String pattern, int limit);
 }
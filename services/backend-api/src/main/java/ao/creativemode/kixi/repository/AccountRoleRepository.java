@@ -5,7 +5,7 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface AccountRoleRepository extends ReactiveCrudRepository<AccountRole, Long> {
+public interface AccountRoleRepository extends ReactiveCrudRepository<AccountRole, Long>, AccountRoleRepositoryCustom {
 
     Flux<AccountRole> findByAccountIdAndDeletedAtIsNull(Long accountId);
 
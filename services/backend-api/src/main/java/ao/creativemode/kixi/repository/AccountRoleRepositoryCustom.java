@@ -0,0 +1,18 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.model.Role;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Queries on account roles that cannot be expressed as derived queries.
+ */
+public interface AccountRoleRepositoryCustom {
+
+    /**
+     * Loads the active roles of an active account in a single JOIN query.
+     * Completes empty when the account does not exist or is deleted.
+     */
+    Mono<List<Role>> findActiveRolesOfActiveAccount(Long accountId);
+}
@@ -0,0 +1,59 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.model.Role;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class AccountRoleRepositoryCustomImpl implements AccountRoleRepositoryCustom {
+
+    private static final String FIND_ACTIVE_ROLES_OF_ACTIVE_ACCOUNT = """
+            SELECT r.id, r.name, r.description, r.created_at, r.updated_at, r.deleted_at, r.version
+            FROM accounts a
+            LEFT JOIN account_roles ar ON ar.account_id = a.id AND ar.deleted_at IS NULL
+            LEFT JOIN roles r ON r.id = ar.role_id AND r.deleted_at IS NULL
+            WHERE a.id = :accountId AND a.deleted_at IS NULL
+            ORDER BY r.id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    AccountRoleRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<List<Role>> findActiveRolesOfActiveAccount(Long accountId) {
+        return databaseClient.sql(FIND_ACTIVE_ROLES_OF_ACTIVE_ACCOUNT)
+                .bind("accountId", accountId)
+                .map((row, metadata) -> toRole(row))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    List<Role> roles = new ArrayList<>(rows.size());
+                    rows.forEach(role -> role.ifPresent(roles::add));
+                    return roles;
+                });
+    }
+
+    // An account without roles still yields one row, with all role columns null
+    private Optional<Role> toRole(Row row) {
+        Long id = row.get("id", Long.class);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Role role = new Role(row.get("name", String.class), row.get("description", String.class));
+        role.setId(id);
+        role.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        role.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        role.setDeletedAt(row.get("deleted_at", LocalDateTime.class));
+        role.setVersion(row.get("version", Long.class));
+        return Optional.of(role);
+    }
+}
@@ -1,21 +1,59 @@
 package ao.creativemode.kixi.repository;
 
+import ao.creativemode.kixi.dto.courses.CourseResponse;
 import ao.creativemode.kixi.model.Course;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface CourseRepository extends ReactiveCrudRepository<Course, Long> {
 
+    // Columns of CourseResponse
+    String RESPONSE_COLUMNS = "id, code, name, description, created_at, updated_at, deleted_at, version";
+
     Mono<Course> findByIdAndDeletedAtIsNull(Long id);
 
     Flux<Course> findAllByDeletedAtIsNull();
 
     Flux<Course> findAllByDeletedAtIsNotNull();
 
-    Mono<Course> findByIdAndDeletedAtIsNotNull(Long id);
-
     Mono<Course> findByCodeAndDeletedAtIsNull(String code);
 
     Mono<Course> findByCodeAndIdNotAndDeletedAtIsNull(String code, Long id);
+
+    @Query("SELECT * FROM courses WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<Course> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE courses SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE courses SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE courses SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE courses SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM courses WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+
+    /**
+     * Active courses whose code or name contains the term, or resembles it,
+     * best matches first. Served by the trigram index on the same expression.
+     */
+    @Query("SELECT " + RESPONSE_COLUMNS + """
+             FROM courses
+            WHERE deleted_at IS NULL
+              AND ((code || ' ' || name) ILIKE :pattern OR :term <% (code || ' ' || name))
+            ORDER BY word_similarity(:term, code || ' ' || name) DESC, id
+            LIMIT :limit
+            """)
+    Flux<CourseResponse> search(String term, String pattern, int limit);
 }
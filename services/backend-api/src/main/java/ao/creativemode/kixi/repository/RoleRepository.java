@@ -1,6 +1,8 @@
 package ao.creativemode.kixi.repository;
 
 import ao.creativemode.kixi.model.Role;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -10,7 +12,27 @@ public interface RoleRepository extends ReactiveCrudRepository<Role, Long> {
     Flux<Role> findAllByDeletedAtIsNull();
     Flux<Role> findAllByDeletedAtIsNotNull();
     Mono<Role> findByIdAndDeletedAtIsNull(Long id);
-    Mono<Role> findByIdAndDeletedAtIsNotNull(Long id);
     Mono<Role> findByNameAndDeletedAtIsNull(String name);
     Mono<Role> findByNameAndIdNotAndDeletedAtIsNull(String name, Long id);
+
+    @Query("SELECT * FROM roles WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<Role> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE roles SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE roles SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE roles SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE roles SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM roles WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
 }
@@ -1,6 +1,8 @@
 package ao.creativemode.kixi.repository;
 
 import ao.creativemode.kixi.model.SchoolYear;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -10,6 +12,26 @@ public interface SchoolYearRepository extends ReactiveCrudRepository<SchoolYear,
     Flux<SchoolYear> findAllByDeletedAtIsNull();
     Flux<SchoolYear> findAllByDeletedAtIsNotNull();
     Mono<SchoolYear> findByIdAndDeletedAtIsNull(Long id);
-    Mono<SchoolYear> findByIdAndDeletedAtIsNotNull(Long id);
     Mono<SchoolYear> findByStartYearAndEndYearAndIdNot(Integer startYear, Integer endYear, Long id);
-}
\ No newline at end of file
+
+    @Query("SELECT * FROM school_years WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<SchoolYear> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE school_years SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE school_years SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE school_years SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE school_years SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM school_years WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+}
@@ -1,16 +1,96 @@
 package ao.creativemode.kixi.repository;
 
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.dto.sessions.SessionResponse;
 import ao.creativemode.kixi.model.Session;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 public interface SessionRepository extends ReactiveCrudRepository<Session, Long> {
 
-    Flux<Session> findAllByDeletedAtIsNull();
-    Flux<Session> findAllByDeletedAtIsNotNull();
+    // Columns of SessionResponse; listings never read token_hash
+    String RESPONSE_COLUMNS = "id, account_id, token, ip_address, expires_at, last_used, created_at, updated_at, deleted_at, version";
+
+    Flux<SessionResponse> findAllByDeletedAtIsNull();
+    Flux<SessionResponse> findAllByDeletedAtIsNotNull();
     Mono<Session> findByIdAndDeletedAtIsNull(Long id);
-    Mono<Session> findByIdAndDeletedAtIsNotNull(Long id);
     Flux<Session> findByAccountIdAndDeletedAtIsNull(Long accountId);
     Mono<Long> countByAccountIdAndDeletedAtIsNull(Long accountId);
+
+    @Query("SELECT * FROM sessions WHERE token_hash = :tokenHash AND deleted_at IS NULL AND expires_at > now()")
+    Mono<Session> findActiveByTokenHash(byte[] tokenHash);
+
+    // Login in one round trip: stamps last_login and opens the session atomically.
+    // Empty when the account was deleted or deactivated after it was read.
+    @Query("""
+            WITH account AS (
+                UPDATE accounts SET last_login = greatest(last_login, :now)
+                WHERE id = :accountId AND deleted_at IS NULL AND active
+                RETURNING id)
+            INSERT INTO sessions (account_id, token, token_hash, ip_address, expires_at, last_used, created_at, updated_at)
+            SELECT id, :token, :tokenHash, :ipAddress, :expiresAt, :now, :now, :now FROM account
+            RETURNING id
+            """)
+    Mono<Long> insertForLogin(Long accountId, String token, byte[] tokenHash, String ipAddress,
+                              LocalDateTime expiresAt, LocalDateTime now);
+
+    // Refresh: marks the session used only while it is still live, in the same statement
+    @Query("UPDATE sessions SET last_used = now() WHERE id = :id AND deleted_at IS NULL AND expires_at > now() RETURNING id")
+    Mono<Long> touchIfActive(Long id);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM sessions WHERE deleted_at IS NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<SessionResponse> findActivePage(long after, int limit);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM sessions WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<SessionResponse> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE sessions SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE sessions SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE sessions SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE sessions SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM sessions WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+
+    @Query("SELECT count(*) AS count, max(greatest(updated_at, last_used)) AS last_modified FROM sessions WHERE deleted_at IS NULL")
+    Mono<CollectionStamp> findActiveStamp();
+
+    @Modifying
+    @Query("""
+            UPDATE sessions SET deleted_at = now(), updated_at = now(), version = version + 1
+            WHERE id IN (
+                SELECT id FROM sessions
+                WHERE deleted_at IS NULL AND expires_at < now()
+                ORDER BY expires_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            """)
+    Mono<Integer> softDeleteExpired(int limit);
+
+    // The cutoff is taken from the database clock, like deleted_at itself
+    @Modifying
+    @Query("""
+            DELETE FROM sessions
+            WHERE id IN (
+                SELECT id FROM sessions
+                WHERE deleted_at IS NOT NULL AND deleted_at < now() - make_interval(secs => :retentionSeconds)
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            """)
+    Mono<Integer> purgeDeletedOlderThan(long retentionSeconds, int limit);
 }
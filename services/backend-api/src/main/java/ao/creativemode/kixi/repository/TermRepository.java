@@ -1,6 +1,8 @@
 package ao.creativemode.kixi.repository;
 
 import ao.creativemode.kixi.model.Term;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -9,5 +11,25 @@ public interface TermRepository extends ReactiveCrudRepository<Term, Long> {
     Flux<Term> findAllByDeletedAtIsNull();
     Flux<Term> findAllByDeletedAtIsNotNull();
     Mono<Term> findByIdAndDeletedAtIsNull(Long id);
-    Mono<Term> findByIdAndDeletedAtIsNotNull(Long id);
-}
\ No newline at end of file
+
+    @Query("SELECT * FROM terms WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<Term> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE terms SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE terms SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE terms SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE terms SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM terms WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+}
@@ -1,16 +1,62 @@
 package ao.creativemode.kixi.repository;
 
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.dto.users.UserResponse;
 import ao.creativemode.kixi.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+public interface UserRepository extends ReactiveCrudRepository<User, Long>, UserRepositoryCustom {
 
-    Flux<User> findAllByDeletedAtIsNull();
-    Flux<User> findAllByDeletedAtIsNotNull();
+    // Columns of UserResponse
+    String RESPONSE_COLUMNS = "id, account_id, first_name, last_name, photo, created_at, updated_at, deleted_at, version";
+
+    Flux<UserResponse> findAllByDeletedAtIsNull();
+    Flux<UserResponse> findAllByDeletedAtIsNotNull();
     Mono<User> findByIdAndDeletedAtIsNull(Long id);
-    Mono<User> findByIdAndDeletedAtIsNotNull(Long id);
-    Flux<User> findByAccountIdAndDeletedAtIsNull(Long accountId);
+    Flux<UserResponse> findByAccountIdAndDeletedAtIsNull(Long accountId);
     Mono<Long> countByAccountIdAndDeletedAtIsNull(Long accountId);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM users WHERE deleted_at IS NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<UserResponse> findActivePage(long after, int limit);
+
+    @Query("SELECT " + RESPONSE_COLUMNS + " FROM users WHERE deleted_at IS NOT NULL AND id > :after ORDER BY id LIMIT :limit")
+    Flux<UserResponse> findDeletedPage(long after, int limit);
+
+    @Query("UPDATE users SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NULL RETURNING id")
+    Flux<Long> softDeleteAllById(Long[] ids);
+
+    @Query("UPDATE users SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = ANY(:ids) AND deleted_at IS NOT NULL RETURNING id")
+    Flux<Long> restoreAllById(Long[] ids);
+
+    @Modifying
+    @Query("UPDATE users SET deleted_at = now(), updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Integer> softDeleteById(Long id);
+
+    @Modifying
+    @Query("UPDATE users SET deleted_at = NULL, updated_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> restoreById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM users WHERE id = :id AND deleted_at IS NOT NULL")
+    Mono<Integer> purgeById(Long id);
+
+    @Query("SELECT count(*) AS count, max(updated_at) AS last_modified FROM users WHERE deleted_at IS NULL")
+    Mono<CollectionStamp> findActiveStamp();
+
+    /**
+     * Active users whose first or last name contains the term, or resembles it,
+     * best matches first. Served by the trigram index on the same expression.
+     */
+    @Query("SELECT " + RESPONSE_COLUMNS + """
+             FROM users
+            WHERE deleted_at IS NULL
+              AND ((first_name || ' ' || last_name) ILIKE :pattern OR :term <% (first_name || ' ' || last_name))
+            ORDER BY word_similarity(:term, first_name || ' ' || last_name) DESC, id
+            LIMIT :limit
+            """)
+    Flux<UserResponse> search(String term, String pattern, int limit);
 }
@@ -0,0 +1,17 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.dto.users.UserResponseWithAccount;
+import reactor.core.publisher.Mono;
+
+/**
+ * Queries on users that cannot be expressed as derived queries.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads an active user together with its active account in a single JOIN query,
+     * decoded straight into the response. The account is left null when it does not
+     * exist or is deleted.
+     */
+    Mono<UserResponseWithAccount> findByIdAndDeletedAtIsNullWithAccount(Long id);
+}
@@ -0,0 +1,54 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.dto.accounts.AccountBasicResponse;
+import ao.creativemode.kixi.dto.users.UserResponseWithAccount;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String FIND_ACTIVE_WITH_ACCOUNT = """
+            SELECT u.id, u.first_name, u.last_name, u.photo,
+                   u.created_at, u.updated_at, u.deleted_at, u.version,
+                   a.id AS account__id, a.username AS account__username, a.email AS account__email
+            FROM users u
+            LEFT JOIN accounts a ON a.id = u.account_id AND a.deleted_at IS NULL
+            WHERE u.id = :id AND u.deleted_at IS NULL
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    UserRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<UserResponseWithAccount> findByIdAndDeletedAtIsNullWithAccount(Long id) {
+        return databaseClient.sql(FIND_ACTIVE_WITH_ACCOUNT)
+                .bind("id", id)
+                .map((row, metadata) -> toResponse(row))
+                .one();
+    }
+
+    private UserResponseWithAccount toResponse(Row row) {
+        Long accountId = row.get("account__id", Long.class);
+        AccountBasicResponse account = accountId == null ? null : new AccountBasicResponse(
+                accountId,
+                row.get("account__username", String.class),
+                row.get("account__email", String.class));
+
+        return new UserResponseWithAccount(
+                row.get("id", Long.class),
+                account,
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("photo", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("deleted_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
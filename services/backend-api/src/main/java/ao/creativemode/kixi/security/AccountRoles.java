@@ -0,0 +1,50 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.model.Role;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolved, immutable set of active roles held by an account.
+ * Role checks are in-memory lookups: a bitset over role ids and a set of names.
+ */
+public final class AccountRoles {
+
+    private final List<Role> roles;
+    private final BitSet roleIds;
+    private final Set<String> roleNames;
+
+    private AccountRoles(List<Role> roles) {
+        this.roles = List.copyOf(roles);
+        this.roleIds = new BitSet();
+        for (Role role : roles) {
+            roleIds.set(Math.toIntExact(role.getId()));
+        }
+        this.roleNames = roles.stream()
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static AccountRoles of(List<Role> roles) {
+        return new AccountRoles(roles);
+    }
+
+    public List<Role> roles() {
+        return roles;
+    }
+
+    public Set<String> names() {
+        return roleNames;
+    }
+
+    public boolean hasRole(long roleId) {
+        return roleId >= 0 && roleId <= Integer.MAX_VALUE && roleIds.get((int) roleId);
+    }
+
+    public boolean hasRole(String roleName) {
+        return roleNames.contains(roleName);
+    }
+}
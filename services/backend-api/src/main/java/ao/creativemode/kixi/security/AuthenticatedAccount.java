@@ -0,0 +1,32 @@
+package ao.creativemode.kixi.security;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * The caller authenticated by a verified access token.
+ * Built from the token's claims alone and carried in the Reactor context under
+ * {@link #CONTEXT_KEY}, so downstream code reads identity and roles without a query.
+ */
+public record AuthenticatedAccount(Long accountId,
+                                   String username,
+                                   Set<String> roles,
+                                   String tokenId,
+                                   Long sessionId,
+                                   Instant expiresAt) {
+
+    public static final Class<AuthenticatedAccount> CONTEXT_KEY = AuthenticatedAccount.class;
+
+    public boolean hasRole(String roleName) {
+        return roles.contains(roleName);
+    }
+
+    /**
+     * The caller of the current request; empty when the request is anonymous.
+     */
+    public static Mono<AuthenticatedAccount> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(CONTEXT_KEY)));
+    }
+}
@@ -0,0 +1,97 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.web.ProblemResponses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <access token>}.
+ * The token is verified in memory and the caller is put into the Reactor context
+ * as an {@link AuthenticatedAccount}; no query is issued unless the revocation
+ * list has to confirm a possible match. An invalid or revoked token is always
+ * answered with 401. A missing token is let through anonymously in
+ * {@code PERMISSIVE} mode and rejected in {@code ENFORCED} mode, except on public paths.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    public enum Mode { PERMISSIVE, ENFORCED }
+
+    private static final String INVALID_TOKEN = "Bearer error=\"invalid_token\"";
+
+    private final JwtTokens tokens;
+    private final TokenRevocationList revocations;
+    private final Mode mode;
+    private final List<PathPattern> publicPaths;
+    private final ObjectMapper objectMapper;
+
+    public JwtAuthenticationWebFilter(JwtTokens tokens,
+                                      TokenRevocationList revocations,
+                                      Mode mode,
+                                      List<String> publicPaths,
+                                      ObjectMapper objectMapper) {
+        this.tokens = tokens;
+        this.revocations = revocations;
+        this.mode = mode;
+        this.publicPaths = publicPaths.stream()
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // Login and refresh must keep working when the client still sends a stale token
+        if (isPublic(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        String token = JwtTokens.bearerToken(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (token == null) {
+            if (mode == Mode.ENFORCED) {
+                return unauthorized(exchange, "Bearer", "Authentication is required");
+            }
+            return chain.filter(exchange);
+        }
+
+        AuthenticatedAccount account;
+        try {
+            account = tokens.verifyAccess(token);
+        } catch (ApiException e) {
+            return unauthorized(exchange, INVALID_TOKEN, e.getMessage());
+        }
+        // Checked on every request, including tokens served from the verified-token cache
+        return revocations.isRevoked(account.tokenId())
+                .flatMap(revoked -> revoked
+                        ? unauthorized(exchange, INVALID_TOKEN, "Token has been revoked")
+                        : chain.filter(exchange)
+                                .contextWrite(context -> context.put(AuthenticatedAccount.CONTEXT_KEY, account)));
+    }
+
+    private boolean isPublic(ServerWebExchange exchange) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange, String challenge, String detail) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        return ProblemResponses.write(exchange, objectMapper, HttpStatus.UNAUTHORIZED, "Unauthorized", detail);
+    }
+}
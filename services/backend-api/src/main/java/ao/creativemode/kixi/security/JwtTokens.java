@@ -0,0 +1,218 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies the API's JWTs (HS256).
+ * The signing key is decoded once and the parser is built once; both are
+ * immutable and shared by all requests. Verified access tokens are cached until
+ * they expire, so a client repeating its token skips the signature check and
+ * claim parsing entirely.
+ */
+@Component
+public class JwtTokens {
+
+    private static final int MIN_SECRET_BITS = 256;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String TYPE_CLAIM = "typ";
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String SESSION_CLAIM = "sid";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final String issuer;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final Cache<String, AuthenticatedAccount> verified;
+
+    public JwtTokens(
+            MeterRegistry registry,
+            @Value("${kixi.security.jwt.secret:}") String secret,
+            @Value("${kixi.security.jwt.issuer:kixi-backend-api}") String issuer,
+            @Value("${kixi.security.jwt.access-token-ttl:PT15M}") Duration accessTtl,
+            @Value("${kixi.security.jwt.refresh-token-ttl:P7D}") Duration refreshTtl,
+            @Value("${kixi.security.jwt.clock-skew:PT30S}") Duration clockSkew,
+            @Value("${kixi.security.jwt.verified-cache.max-size:10000}") long verifiedCacheSize) {
+        this.key = signingKey(secret);
+        this.issuer = issuer;
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .requireIssuer(issuer)
+                .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                .build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, verified, "jwt_verified");
+    }
+
+    public Duration refreshTtl() {
+        return refreshTtl;
+    }
+
+    /**
+     * Issues an access/refresh pair. Both carry the id of the login session they belong to.
+     */
+    public TokenPair issue(Long accountId, String username, Collection<String> roles, Long sessionId) {
+        Instant now = Instant.now();
+        String access = Jwts.builder()
+                .setIssuer(issuer)
+                .setSubject(accountId.toString())
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(accessTtl)))
+                .claim(TYPE_CLAIM, ACCESS)
+                .claim(USERNAME_CLAIM, username)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .claim(SESSION_CLAIM, sessionId)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        String refresh = Jwts.builder()
+                .setIssuer(issuer)
+                .setSubject(accountId.toString())
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(refreshTtl)))
+                .claim(TYPE_CLAIM, REFRESH)
+                .claim(SESSION_CLAIM, sessionId)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        return new TokenPair(access, accessTtl, refresh, refreshTtl);
+    }
+
+    /**
+     * Verifies an access token and returns the caller it names.
+     *
+     * @throws ApiException 401 when the token is malformed, forged, expired or not an access token
+     */
+    public AuthenticatedAccount verifyAccess(String token) {
+        AuthenticatedAccount cached = verified.getIfPresent(token);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+        AuthenticatedAccount account = verify(token, ACCESS);
+        verified.put(token, account);
+        return account;
+    }
+
+    /**
+     * Verifies a refresh token. The returned caller carries no roles: they are
+     * resolved again when the new access token is issued.
+     *
+     * @throws ApiException 401 when the token is malformed, forged, expired or not a refresh token
+     */
+    public AuthenticatedAccount verifyRefresh(String token) {
+        return verify(token, REFRESH);
+    }
+
+    /**
+     * The token of an {@code Authorization: Bearer} header, or null for any other header.
+     */
+    public static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private AuthenticatedAccount verify(String token, String expectedType) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            throw ApiException.unauthorized("Token has expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw ApiException.unauthorized("Invalid token");
+        }
+        if (!expectedType.equals(claims.get(TYPE_CLAIM, String.class))) {
+            throw ApiException.unauthorized("Invalid token");
+        }
+        Long accountId;
+        try {
+            accountId = Long.valueOf(claims.getSubject());
+        } catch (NumberFormatException e) {
+            throw ApiException.unauthorized("Invalid token");
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new AuthenticatedAccount(
+                accountId,
+                claims.get(USERNAME_CLAIM, String.class),
+                roles == null ? Set.of() : roles.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet()),
+                claims.getId(),
+                claims.get(SESSION_CLAIM, Long.class),
+                claims.getExpiration().toInstant());
+    }
+
+    // Every replica must sign with the same key, and keep it across restarts, or
+    // tokens stop validating at random; so a missing or weak secret stops startup.
+    private static SecretKey signingKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("kixi.security.jwt.secret (JWT_SECRET) must be set");
+        }
+        byte[] bytes;
+        try {
+            bytes = Decoders.BASE64.decode(secret.trim());
+        } catch (DecodingException e) {
+            throw new IllegalStateException("kixi.security.jwt.secret must be base64", e);
+        }
+        if (bytes.length * 8 < MIN_SECRET_BITS) {
+            throw new IllegalStateException("kixi.security.jwt.secret must be at least " + MIN_SECRET_BITS
+                    + " bits, got " + bytes.length * 8);
+        }
+        return Keys.hmacShaKeyFor(bytes);
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, AuthenticatedAccount> {
+
+        @Override
+        public long expireAfterCreate(String token, AuthenticatedAccount account, long currentTime) {
+            return Math.max(0L, Duration.between(Instant.now(), account.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, AuthenticatedAccount account, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, account, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, AuthenticatedAccount account, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hashing off the Netty event loop.
+ * Every encode/matches call takes tens of milliseconds of CPU, so it runs on a
+ * dedicated bounded scheduler. When all workers are busy and {@code queue-capacity}
+ * calls are already waiting, the call fails fast with 429 instead of piling up work.
+ * The bound is shared by all workers: the scheduler's own queue limit applies per
+ * worker thread, so admission is counted here.
+ */
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    private final BCryptPasswordEncoder encoder;
+    private final String dummyHash;
+    private final Scheduler scheduler;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(
+            MeterRegistry registry,
+            @Value("${kixi.security.password-hashing.strength:10}") int strength,
+            @Value("${kixi.security.password-hashing.max-concurrency:0}") int maxConcurrency,
+            @Value("${kixi.security.password-hashing.queue-capacity:256}") int queueCapacity) {
+        int threads = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors();
+
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueCapacity, "password-hashing");
+        this.maxPending = threads + queueCapacity;
+        this.encodeTimer = hashTimer(registry, "encode");
+        this.matchesTimer = hashTimer(registry, "matches");
+        this.queueWaitTimer = Timer.builder("kixi.password.hashing.queue.wait")
+                .description("Time a hashing task waits for a worker")
+                .register(registry);
+        this.rejectedCounter = Counter.builder("kixi.password.hashing.rejected")
+                .description("Hashing tasks shed because the queue was full")
+                .register(registry);
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return offload(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String passwordHash) {
+        return offload(matchesTimer, () -> encoder.matches(rawPassword, passwordHash));
+    }
+
+    /**
+     * Runs a full hash check against a throwaway hash, for callers that have no
+     * real hash to check but must take as long as if they had. Never matches.
+     */
+    public Mono<Boolean> matchesNothing(String rawPassword) {
+        return offload(matchesTimer, () -> encoder.matches(rawPassword, dummyHash))
+                .thenReturn(false);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private <T> Mono<T> offload(Timer timer, Callable<T> task) {
+        return Mono.defer(() -> {
+                    // Running plus waiting calls, across all workers
+                    if (pending.incrementAndGet() > maxPending) {
+                        pending.decrementAndGet();
+                        return Mono.error(new RejectedExecutionException("Password hashing queue is full"));
+                    }
+                    long enqueuedAt = System.nanoTime();
+                    return Mono.fromCallable(() -> {
+                                long startedAt = System.nanoTime();
+                                queueWaitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                                try {
+                                    return task.call();
+                                } finally {
+                                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                                }
+                            })
+                            .subscribeOn(scheduler)
+                            .doFinally(signal -> pending.decrementAndGet());
+                })
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejectedCounter.increment();
+                    return ApiException.tooManyRequests("Server is busy, please retry shortly");
+                });
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("kixi.password.hashing")
+                .description("BCrypt computation time")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,9 @@
+package ao.creativemode.kixi.security;
+
+import java.time.Duration;
+
+/**
+ * Access and refresh token issued together, with their lifetimes.
+ */
+public record TokenPair(String accessToken, Duration accessTtl, String refreshToken, Duration refreshTtl) {
+}
@@ -0,0 +1,260 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.cache.BloomFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of revoked token ids ({@code jti}), backed by {@code revoked_tokens}.
+ * Each replica holds a Bloom filter built from all unexpired revocations plus an
+ * exact map of revocations seen since that filter was built. A token that is in
+ * neither is answered "not revoked" from memory. Only a Bloom filter hit that is
+ * not in the exact map is confirmed with a primary-key query, and the answer is cached.
+ * <p>
+ * New revocations are pulled every {@code refresh-interval} by {@code revoked_at},
+ * so other replicas see a revocation within that delay; the revoking replica sees
+ * it immediately. The filter is rebuilt every {@code rebuild-interval}, which also
+ * drops expired tokens and purges their rows.
+ */
+@Component
+public class TokenRevocationList implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final Mono<Boolean> REVOKED = Mono.just(true);
+    private static final Mono<Boolean> NOT_REVOKED = Mono.just(false);
+
+    // revoked_at is the inserting transaction's start time; rows committed slightly
+    // out of order are still picked up by re-reading this window behind the watermark
+    private static final Duration WATERMARK_OVERLAP = Duration.ofSeconds(5);
+
+    private final DatabaseClient databaseClient;
+    private final Duration refreshInterval;
+    private final Duration rebuildInterval;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final int purgeBatchSize;
+    private final Map<String, Instant> recent = new ConcurrentHashMap<>();
+    private final AsyncCache<String, Boolean> confirmed;
+
+    private volatile BloomFilter filter;
+    private volatile Instant watermark;
+    private Disposable refreshLoop;
+    private Disposable rebuildLoop;
+
+    public TokenRevocationList(
+            DatabaseClient databaseClient,
+            MeterRegistry registry,
+            @Value("${kixi.security.revocation.refresh-interval:PT5S}") Duration refreshInterval,
+            @Value("${kixi.security.revocation.rebuild-interval:PT15M}") Duration rebuildInterval,
+            @Value("${kixi.security.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${kixi.security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${kixi.security.revocation.confirmed-cache.max-size:10000}") long confirmedCacheSize,
+            @Value("${kixi.security.revocation.purge-batch-size:1000}") int purgeBatchSize) {
+        this.databaseClient = databaseClient;
+        this.refreshInterval = refreshInterval;
+        this.rebuildInterval = rebuildInterval;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeBatchSize = purgeBatchSize;
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(confirmedCacheSize)
+                .expireAfterWrite(rebuildInterval)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, confirmed, "jwt_revocation_confirmed");
+        Gauge.builder("kixi.security.revocations.recent", recent, Map::size)
+                .description("Revocations held exactly since the last Bloom filter rebuild")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuildLoop = Mono.defer(this::rebuild)
+                .then(Mono.defer(() -> Mono.delay(rebuildInterval)))
+                .repeat()
+                .subscribe();
+        refreshLoop = Mono.defer(() -> Mono.delay(refreshInterval))
+                .then(Mono.defer(this::refresh))
+                .repeat()
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshLoop != null) {
+            refreshLoop.dispose();
+        }
+        if (rebuildLoop != null) {
+            rebuildLoop.dispose();
+        }
+    }
+
+    /**
+     * Whether the token id has been revoked. Answered from memory unless the
+     * Bloom filter reports a possible match that the exact map cannot settle.
+     */
+    public Mono<Boolean> isRevoked(String jti) {
+        if (jti == null) {
+            return NOT_REVOKED;
+        }
+        if (recent.containsKey(jti)) {
+            return REVOKED;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) {
+            return NOT_REVOKED;
+        }
+        // Bloom filter hit, or no filter built yet
+        return Mono.fromFuture(() -> confirmed.get(jti, (key, executor) -> exists(key).toFuture()));
+    }
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @return true if this call revoked it, false if it was already revoked
+     */
+    public Mono<Boolean> revoke(String jti, Long accountId, Instant expiresAt) {
+        return databaseClient.sql("""
+                        INSERT INTO revoked_tokens (jti, account_id, expires_at)
+                        VALUES (:jti, :accountId, :expiresAt)
+                        ON CONFLICT (jti) DO NOTHING
+                        """)
+                .bind("jti", jti)
+                .bind("accountId", accountId)
+                .bind("expiresAt", expiresAt)
+                .fetch()
+                .rowsUpdated()
+                .map(inserted -> inserted > 0)
+                .doOnNext(inserted -> {
+                    recent.put(jti, expiresAt);
+                    confirmed.synchronous().invalidate(jti);
+                });
+    }
+
+    /**
+     * Pulls revocations made since the watermark, including those from other replicas.
+     */
+    Mono<Void> refresh() {
+        Instant since = watermark;
+        if (since == null) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("""
+                        SELECT jti, expires_at, revoked_at FROM revoked_tokens
+                        WHERE revoked_at > :since AND expires_at > CURRENT_TIMESTAMP
+                        """)
+                .bind("since", since.minus(WATERMARK_OVERLAP))
+                .map((row, metadata) -> new Revocation(
+                        row.get("jti", String.class),
+                        row.get("expires_at", Instant.class),
+                        row.get("revoked_at", Instant.class)))
+                .all()
+                .doOnNext(revocation -> {
+                    recent.put(revocation.jti(), revocation.expiresAt());
+                    confirmed.synchronous().invalidate(revocation.jti());
+                    advanceWatermark(revocation.revokedAt());
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh revoked tokens, will retry", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Purges expired rows and rebuilds the Bloom filter from the remaining ones.
+     * Exact entries the new filter covers, or whose token has expired, are dropped;
+     * a later check on them is confirmed against the table.
+     */
+    Mono<Void> rebuild() {
+        return purgeExpired()
+                .then(databaseClient.sql("""
+                                SELECT jti, expires_at, revoked_at FROM revoked_tokens
+                                WHERE expires_at > CURRENT_TIMESTAMP
+                                """)
+                        .map((row, metadata) -> new Revocation(
+                                row.get("jti", String.class),
+                                row.get("expires_at", Instant.class),
+                                row.get("revoked_at", Instant.class)))
+                        .all()
+                        .collectList())
+                .doOnNext(this::install)
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to rebuild the revoked token filter, will retry", e);
+                    return Mono.empty();
+                });
+    }
+
+    private void install(List<Revocation> revocations) {
+        // Sized for twice the current rows so revocations until the next rebuild do
+        // not push the false-positive rate up
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedRevocations, revocations.size() * 2L), falsePositiveRate);
+        // An empty table starts the watermark at the epoch; the refresh query stays on the index
+        Instant latest = Instant.EPOCH;
+        for (Revocation revocation : revocations) {
+            rebuilt.put(revocation.jti());
+            if (revocation.revokedAt().isAfter(latest)) {
+                latest = revocation.revokedAt();
+            }
+        }
+        filter = rebuilt;
+        advanceWatermark(latest);
+
+        Instant now = Instant.now();
+        recent.entrySet().removeIf(entry -> !entry.getValue().isAfter(now) || rebuilt.mightContain(entry.getKey()));
+        confirmed.synchronous().invalidateAll();
+        log.debug("Revoked token filter rebuilt with {} entries", revocations.size());
+    }
+
+    private Mono<Boolean> exists(String jti) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM revoked_tokens WHERE jti = :jti) AS revoked")
+                .bind("jti", jti)
+                .map((row, metadata) -> Boolean.TRUE.equals(row.get("revoked", Boolean.class)))
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Long> purgeExpired() {
+        return Flux.defer(() -> databaseClient.sql("""
+                                DELETE FROM revoked_tokens WHERE jti IN (
+                                    SELECT jti FROM revoked_tokens WHERE expires_at <= CURRENT_TIMESTAMP LIMIT :limit)
+                                """)
+                        .bind("limit", purgeBatchSize)
+                        .fetch()
+                        .rowsUpdated())
+                .repeat()
+                .takeUntil(affected -> affected < purgeBatchSize)
+                .reduce(0L, Long::sum);
+    }
+
+    private synchronized void advanceWatermark(Instant revokedAt) {
+        if (watermark == null || revokedAt.isAfter(watermark)) {
+            watermark = revokedAt;
+        }
+    }
+
+    private record Revocation(String jti, Instant expiresAt, Instant revokedAt) {
+    }
+}
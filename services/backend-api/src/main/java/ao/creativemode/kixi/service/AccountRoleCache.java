@@ -0,0 +1,61 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.repository.AccountRoleRepository;
+import ao.creativemode.kixi.security.AccountRoles;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Permission-resolution cache keyed by account id.
+ * A miss resolves the account's active roles with one JOIN query; concurrent
+ * misses for the same account share that query. Entries are invalidated when
+ * role assignments, roles or the account change locally, and expire after
+ * {@code ttl} to pick up changes made on other replicas.
+ */
+@Component
+public class AccountRoleCache {
+
+    private final AccountRoleRepository repository;
+    private final AsyncCache<Long, AccountRoles> cache;
+
+    public AccountRoleCache(
+            AccountRoleRepository repository,
+            MeterRegistry registry,
+            @Value("${kixi.rbac.cache.max-size:10000}") long maxSize,
+            @Value("${kixi.rbac.cache.ttl:10m}") Duration ttl) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, "account_roles");
+    }
+
+    /**
+     * Resolves the active roles of an active account.
+     * Completes empty when the account does not exist or is deleted.
+     */
+    public Mono<AccountRoles> get(Long accountId) {
+        return Mono.fromFuture(
+                () -> cache.get(accountId, (id, executor) -> repository.findActiveRolesOfActiveAccount(id)
+                        .map(AccountRoles::of)
+                        .toFuture()),
+                true);
+    }
+
+    public void invalidate(Long accountId) {
+        cache.synchronous().invalidate(accountId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -8,6 +8,7 @@ import ao.creativemode.kixi.model.Role;
 import ao.creativemode.kixi.repository.AccountRepository;
 import ao.creativemode.kixi.repository.AccountRoleRepository;
 import ao.creativemode.kixi.repository.RoleRepository;
+import ao.creativemode.kixi.security.AccountRoles;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -19,27 +20,35 @@ public class AccountRoleService {
     private final AccountRoleRepository accountRoleRepository;
     private final AccountRepository accountRepository;
     private final RoleRepository roleRepository;
+    private final AccountRoleCache roleCache;
 
     public AccountRoleService(AccountRoleRepository accountRoleRepository,
                               AccountRepository accountRepository,
-                              RoleRepository roleRepository) {
+                              RoleRepository roleRepository,
+                              AccountRoleCache roleCache) {
         this.accountRoleRepository = accountRoleRepository;
         this.accountRepository = accountRepository;
         this.roleRepository = roleRepository;
+        this.roleCache = roleCache;
     }
 
     /**
      * Lista os roles atualmente atribuídos a um account (associações ativas).
      */
     public Flux<RoleResponse> findRolesByAccountId(Long accountId) {
-        return accountRepository.findByIdAndDeletedAtIsNull(accountId)
-                .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")))
-                .thenMany(accountRoleRepository.findByAccountIdAndDeletedAtIsNull(accountId))
-                .flatMap(ar -> roleRepository.findById(ar.getRoleId()))
-                .filter(role -> role.getDeletedAt() == null)
+        return resolveRoles(accountId)
+                .flatMapIterable(AccountRoles::roles)
                 .map(this::toRoleResponse);
     }
 
+    /**
+     * Resolve os roles ativos de um account a partir da cache de permissões.
+     */
+    public Mono<AccountRoles> resolveRoles(Long accountId) {
+        return roleCache.get(accountId)
+                .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")));
+    }
+
     /**
      * Atribui um role a um account (cria associação ativa ou restaura se já existia com soft-delete).
      */
@@ -64,7 +73,8 @@ public class AccountRoleService {
                         })))
                 .onErrorMap(DataIntegrityViolationException.class,
                         e -> ApiException.conflict("Account already has this role"))
-                .then();
+                .then()
+                .doOnSuccess(v -> roleCache.invalidate(accountId));
     }
 
     /**
@@ -77,7 +87,8 @@ public class AccountRoleService {
                     ar.markAsDeleted();
                     return accountRoleRepository.save(ar);
                 })
-                .then();
+                .then()
+                .doOnSuccess(v -> roleCache.invalidate(accountId));
     }
 
     private RoleResponse toRoleResponse(Role entity) {
@@ -87,7 +98,8 @@ public class AccountRoleService {
                 entity.getDescription(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt()
+                entity.getDeletedAt(),
+                entity.getVersion()
         );
     }
 }
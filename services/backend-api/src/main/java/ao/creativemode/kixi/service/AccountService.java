@@ -1,42 +1,83 @@
 package ao.creativemode.kixi.service;
 
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.common.search.SearchRequest;
 import ao.creativemode.kixi.dto.accounts.AccountRequest;
 import ao.creativemode.kixi.dto.accounts.AccountResponse;
 import ao.creativemode.kixi.model.Account;
 import ao.creativemode.kixi.repository.AccountRepository;
+import ao.creativemode.kixi.security.PasswordHasher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class AccountService {
 
-    private final AccountRepository repository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    // Bulk creates keep at most this many hashes queued on the hashing pool
+    private static final int HASHING_CONCURRENCY = Runtime.getRuntime().availableProcessors();
 
-    public AccountService(AccountRepository repository) {
+    private final AccountRepository repository;
+    private final PasswordHasher passwordHasher;
+    private final ActivityWriteBehind activity;
+    private final AccountRoleCache accountRoleCache;
+    private final MultiRowInsert multiRowInsert;
+
+    public AccountService(AccountRepository repository,
+                          PasswordHasher passwordHasher,
+                          ActivityWriteBehind activity,
+                          AccountRoleCache accountRoleCache,
+                          MultiRowInsert multiRowInsert) {
         this.repository = repository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
+        this.activity = activity;
+        this.accountRoleCache = accountRoleCache;
+        this.multiRowInsert = multiRowInsert;
     }
 
     public Flux<AccountResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNull();
     }
 
     public Flux<AccountResponse> findAllDeleted() {
-        return repository.findAllByDeletedAtIsNotNull()
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNotNull();
+    }
+
+    public Flux<AccountResponse> findActivePage(long after, int limit) {
+        return repository.findActivePage(after, limit);
+    }
+
+    public Flux<AccountResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit);
+    }
+
+    /**
+     * Row count and latest modification of the active rows, for collection ETags.
+     */
+    public Mono<CollectionStamp> findActiveStamp() {
+        return repository.findActiveStamp();
+    }
+
+    /**
+     * Ranked search over active accounts by username or email, at most {@code search.size()} results.
+     */
+    public Flux<AccountResponse> search(SearchRequest search) {
+        return repository.search(search.term(), search.pattern(), search.size());
     }
 
     public Flux<AccountResponse> findAllByActive(Boolean active) {
-        return repository.findAllByActiveAndDeletedAtIsNull(active)
-                .map(this::toResponse);
+        return repository.findAllByActiveAndDeletedAtIsNull(active);
     }
 
     public Mono<AccountResponse> findByIdActive(Long id) {
@@ -52,82 +93,116 @@ public class AccountService {
     }
 
     public Mono<AccountResponse> create(AccountRequest dto) {
-        String username = dto.username().trim();
-        String email = dto.email().trim().toLowerCase();
-        String passwordHash = passwordEncoder.encode(dto.password());
-
-        Account entity = new Account();
-        entity.setUsername(username);
-        entity.setEmail(email);
-        entity.setPasswordHash(passwordHash);
-        entity.setEmailVerified(false);
-        entity.setActive(true);
-        entity.setDeletedAt(null);
-
-        return repository.save(entity)
+        return passwordHasher.encode(dto.password())
+                .flatMap(passwordHash -> repository.save(newAccount(dto, passwordHash)))
                 .map(this::toResponse)
                 .onErrorMap(DataIntegrityViolationException.class,
                         e -> ApiException.conflict("Username or email already exists"));
     }
 
-    public Mono<AccountResponse> update(Long id, AccountRequest dto) {
+    public Mono<AccountResponse> update(Long id, AccountRequest dto, Long expectedVersion) {
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")))
-                .flatMap(entity -> {
-                    String username = dto.username().trim();
-                    String email = dto.email().trim().toLowerCase();
-                    String passwordHash = passwordEncoder.encode(dto.password());
-
-                    entity.setUsername(username);
-                    entity.setEmail(email);
-                    entity.setPasswordHash(passwordHash);
-                    entity.setUpdatedAt(LocalDateTime.now());
-
-                    return repository.save(entity)
-                            .onErrorMap(DataIntegrityViolationException.class,
-                                    e -> ApiException.conflict("Username or email already exists"));
-                })
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("Account has changed since it was read")))
+                .flatMap(entity -> passwordHasher.encode(dto.password())
+                        .flatMap(passwordHash -> {
+                            String username = dto.username().trim();
+                            String email = dto.email().trim().toLowerCase();
+
+                            entity.setUsername(username);
+                            entity.setEmail(email);
+                            entity.setPasswordHash(passwordHash);
+                            entity.setUpdatedAt(LocalDateTime.now());
+
+                            return repository.save(entity)
+                                    .onErrorMap(DataIntegrityViolationException.class,
+                                            e -> ApiException.conflict("Username or email already exists"));
+                        }))
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("Account was modified concurrently"))
                 .map(this::toResponse);
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(LocalDateTime.now());
-                    return repository.save(entity);
-                })
-                .then();
+                .then()
+                .doOnSuccess(v -> accountRoleCache.invalidate(id));
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Account is not deleted")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(null);
-                    return repository.save(entity);
-                })
-                .then();
+                .then()
+                .doOnSuccess(v -> accountRoleCache.invalidate(id));
     }
 
+    /**
+     * Records a login event. The last_login column is written behind,
+     * coalesced with other logins, instead of saving the whole account.
+     */
     public Mono<AccountResponse> recordLogin(Long id) {
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")))
                 .filter(Account::getActive)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Account is inactive")))
-                .flatMap(entity -> {
-                    entity.setLastLogin(LocalDateTime.now());
-                    return repository.save(entity);
+                .map(entity -> {
+                    entity.recordLogin();
+                    activity.touchAccount(entity.getId(), entity.getLastLogin());
+                    return entity;
                 })
                 .map(this::toResponse);
     }
 
     public Mono<Boolean> verifyPassword(String username, String password) {
         return repository.findByUsernameAndDeletedAtIsNull(username.trim())
-                .map(account -> passwordEncoder.matches(password, account.getPasswordHash()))
+                .flatMap(account -> passwordHasher.matches(password, account.getPasswordHash()))
                 .switchIfEmpty(Mono.fromCallable(() -> false));
     }
 
+    /**
+     * Creates accounts in chunks: passwords are hashed on the hashing pool, then
+     * the chunk is written with one multi-row INSERT. Taken usernames or emails
+     * are reported on their item instead of failing the chunk.
+     */
+    public Flux<BatchResult<AccountResponse>> createBatch(List<BatchItem<AccountRequest>> items) {
+        return Flux.fromIterable(items)
+                .flatMapSequential(item -> passwordHasher.encode(item.value().password())
+                        .map(passwordHash -> newAccount(item.value(), passwordHash)), HASHING_CONCURRENCY)
+                .collectList()
+                .flatMap(entities -> multiRowInsert.insertIgnoringConflicts(Account.class, entities, Account::getUsername))
+                .flatMapMany(inserted -> Batches.created(items, inserted, this::toResponse,
+                        i -> ApiException.conflict("Username or email already exists")));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .doOnNext(accountRoleCache::invalidate)
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("Account not found")));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .doOnNext(accountRoleCache::invalidate)
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("Account is not deleted")));
+    }
+
+    private Account newAccount(AccountRequest dto, String passwordHash) {
+        Account entity = new Account();
+        entity.setUsername(dto.username().trim());
+        entity.setEmail(dto.email().trim().toLowerCase());
+        entity.setPasswordHash(passwordHash);
+        entity.setEmailVerified(false);
+        entity.setActive(true);
+        entity.setDeletedAt(null);
+        return entity;
+    }
+
     private AccountResponse toResponse(Account entity) {
         return new AccountResponse(
             entity.getId(),
@@ -138,14 +213,14 @@ public class AccountService {
             entity.getLastLogin(),
             entity.getCreatedAt(),
             entity.getUpdatedAt(),
-            entity.getDeletedAt()
+            entity.getDeletedAt(),
+            entity.getVersion()
         );
     }
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                        Mono.error(ApiException.badRequest("Only deleted accounts can be permanently removed")))
-                .flatMap(repository::delete)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted accounts can be permanently removed")))
                 .then();
     }
 }
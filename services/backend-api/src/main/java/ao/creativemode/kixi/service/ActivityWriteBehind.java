@@ -0,0 +1,163 @@
+package ao.creativemode.kixi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind aggregator for heartbeat timestamps ({@code sessions.last_used}
+ * and {@code accounts.last_login}).
+ * Touches are coalesced in memory per id and flushed periodically as one
+ * {@code UPDATE ... FROM (VALUES ...)} statement per table, so a busy session
+ * costs one write per flush interval instead of one write per request.
+ * The database lags behind by at most the flush interval.
+ */
+@Component
+public class ActivityWriteBehind implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityWriteBehind.class);
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final DatabaseClient databaseClient;
+    private final int maxRowsPerStatement;
+    private final PendingTouches sessions;
+    private final PendingTouches accounts;
+
+    public ActivityWriteBehind(
+            DatabaseClient databaseClient,
+            MeterRegistry registry,
+            @Value("${kixi.write-behind.max-rows-per-statement:500}") int maxRowsPerStatement) {
+        this.databaseClient = databaseClient;
+        this.maxRowsPerStatement = maxRowsPerStatement;
+        this.sessions = new PendingTouches("sessions", "last_used", registry);
+        this.accounts = new PendingTouches("accounts", "last_login", registry);
+    }
+
+    public void touchSession(Long sessionId, LocalDateTime lastUsed) {
+        sessions.touch(sessionId, lastUsed);
+    }
+
+    public void touchAccount(Long accountId, LocalDateTime lastLogin) {
+        accounts.touch(accountId, lastLogin);
+    }
+
+    // A reactive @Scheduled method is called once and its Publisher re-subscribed on
+    // every tick, so the pending touches must be drained per subscription
+    @Scheduled(fixedDelayString = "${kixi.write-behind.flush-interval:PT5S}")
+    public Mono<Void> flush() {
+        return Mono.defer(() -> Mono.when(flush(sessions), flush(accounts)));
+    }
+
+    @Override
+    public void destroy() {
+        flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+    }
+
+    private Mono<Void> flush(PendingTouches pending) {
+        Map<Long, LocalDateTime> batch = pending.drain();
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<Map.Entry<Long, LocalDateTime>> entries = new ArrayList<>(batch.entrySet());
+        return Flux.fromIterable(entries)
+                .buffer(maxRowsPerStatement)
+                .concatMap(chunk -> update(pending, chunk))
+                .reduce(0L, Long::sum)
+                .doOnNext(pending.flushedRows::increment)
+                .onErrorResume(e -> {
+                    log.warn("Failed to flush {} pending {}.{} updates, will retry",
+                            batch.size(), pending.table, pending.column, e);
+                    pending.restore(batch);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Long> update(PendingTouches pending, List<Map.Entry<Long, LocalDateTime>> chunk) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(CAST(:id").append(i).append(" AS BIGINT), CAST(:ts").append(i).append(" AS TIMESTAMP))");
+        }
+
+        String sql = "UPDATE " + pending.table + " AS t SET " + pending.column + " = v.ts"
+                + " FROM (VALUES " + values + ") AS v(id, ts)"
+                + " WHERE t.id = v.id AND (t." + pending.column + " IS NULL OR t." + pending.column + " < v.ts)";
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (int i = 0; i < chunk.size(); i++) {
+            spec = spec.bind("id" + i, chunk.get(i).getKey())
+                    .bind("ts" + i, chunk.get(i).getValue());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static final class PendingTouches {
+
+        private final String table;
+        private final String column;
+        private final Map<Long, LocalDateTime> latest = new ConcurrentHashMap<>();
+        private final Counter touches;
+        private final Counter flushedRows;
+
+        private PendingTouches(String table, String column, MeterRegistry registry) {
+            this.table = table;
+            this.column = column;
+            this.touches = Counter.builder("kixi.write_behind.touches")
+                    .description("Heartbeat touches received")
+                    .tag("table", table)
+                    .register(registry);
+            this.flushedRows = Counter.builder("kixi.write_behind.rows_flushed")
+                    .description("Rows written by write-behind flushes")
+                    .tag("table", table)
+                    .register(registry);
+        }
+
+        private void touch(Long id, LocalDateTime at) {
+            touches.increment();
+            latest.merge(id, at, PendingTouches::max);
+        }
+
+        /**
+         * Removes and returns the pending touches. A touch that races with the
+         * drain stays in the map and goes out with the next flush.
+         */
+        private Map<Long, LocalDateTime> drain() {
+            Map<Long, LocalDateTime> batch = new HashMap<>();
+            for (Map.Entry<Long, LocalDateTime> entry : latest.entrySet()) {
+                if (latest.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return batch;
+        }
+
+        private void restore(Map<Long, LocalDateTime> batch) {
+            batch.forEach((id, at) -> latest.merge(id, at, PendingTouches::max));
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+}
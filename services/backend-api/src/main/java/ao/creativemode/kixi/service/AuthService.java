@@ -0,0 +1,148 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.ratelimit.RateLimiter;
+import ao.creativemode.kixi.dto.auth.LoginRequest;
+import ao.creativemode.kixi.dto.auth.RefreshRequest;
+import ao.creativemode.kixi.dto.auth.TokenResponse;
+import ao.creativemode.kixi.model.Account;
+import ao.creativemode.kixi.repository.AccountRepository;
+import ao.creativemode.kixi.repository.SessionRepository;
+import ao.creativemode.kixi.security.AccountRoles;
+import ao.creativemode.kixi.security.JwtTokens;
+import ao.creativemode.kixi.security.PasswordHasher;
+import ao.creativemode.kixi.security.TokenDigest;
+import ao.creativemode.kixi.security.TokenRevocationList;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class AuthService {
+
+    private final AccountRepository accountRepository;
+    private final SessionRepository sessionRepository;
+    private final SessionService sessionService;
+    private final PasswordHasher passwordHasher;
+    private final AccountRoleCache roleCache;
+    private final JwtTokens tokens;
+    private final TokenRevocationList revocations;
+    private final RateLimiter loginRateLimiter;
+
+    public AuthService(AccountRepository accountRepository,
+                       SessionRepository sessionRepository,
+                       SessionService sessionService,
+                       PasswordHasher passwordHasher,
+                       AccountRoleCache roleCache,
+                       JwtTokens tokens,
+                       TokenRevocationList revocations,
+                       RateLimiter loginRateLimiter) {
+        this.accountRepository = accountRepository;
+        this.sessionRepository = sessionRepository;
+        this.sessionService = sessionService;
+        this.passwordHasher = passwordHasher;
+        this.roleCache = roleCache;
+        this.tokens = tokens;
+        this.revocations = revocations;
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    /**
+     * Checks the credentials, opens a session and issues an access/refresh token pair.
+     * The account is read once and the hash is checked off the event loop; last_login
+     * and the new session are then written by a single statement. Unknown usernames
+     * are still run through a password check so response time does not reveal which
+     * usernames exist. Attempts per username are rate limited before any of this work.
+     */
+    public Mono<TokenResponse> login(LoginRequest dto, String ipAddress) {
+        String username = dto.username().trim();
+        Duration wait = loginRateLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+        if (!wait.isZero()) {
+            return Mono.error(ApiException.tooManyRequests("Too many login attempts, please retry later", wait));
+        }
+        return accountRepository.findByUsernameAndDeletedAtIsNull(username)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .filterWhen(found -> found
+                        .map(account -> passwordHasher.matches(dto.password(), account.getPasswordHash()))
+                        .orElseGet(() -> passwordHasher.matchesNothing(dto.password())))
+                .map(Optional::get)
+                .switchIfEmpty(Mono.error(ApiException.unauthorized("Invalid username or password")))
+                .filter(account -> Boolean.TRUE.equals(account.getActive()))
+                .switchIfEmpty(Mono.error(ApiException.unauthorized("Account is inactive")))
+                .flatMap(account -> Mono.zip(openSession(account, ipAddress), roles(account))
+                        .map(opened -> issue(account, opened.getT2(), opened.getT1())));
+    }
+
+    /**
+     * Exchanges a valid refresh token for a new token pair.
+     * Refresh tokens are single use: the presented one is revoked atomically, so a
+     * replayed or concurrently reused token is rejected. The account is reloaded so
+     * deleted or deactivated accounts cannot refresh. The new pair stays in the same session,
+     * which must still be live: logout and the session reaper end a session, and with it
+     * every refresh token bound to it.
+     */
+    public Mono<TokenResponse> refresh(RefreshRequest dto) {
+        return Mono.fromCallable(() -> tokens.verifyRefresh(dto.refreshToken().trim()))
+                .flatMap(caller -> Mono.justOrEmpty(caller.sessionId())
+                        .flatMap(sessionRepository::touchIfActive)
+                        .switchIfEmpty(Mono.error(ApiException.unauthorized("Session has ended")))
+                        .thenReturn(caller))
+                .flatMap(caller -> revocations.revoke(caller.tokenId(), caller.accountId(), caller.expiresAt())
+                        .filter(Boolean::booleanValue)
+                        .switchIfEmpty(Mono.error(ApiException.unauthorized("Refresh token has been revoked")))
+                        .thenReturn(caller))
+                .flatMap(caller -> accountRepository.findByIdAndDeletedAtIsNull(caller.accountId())
+                        .filter(account -> Boolean.TRUE.equals(account.getActive()))
+                        .switchIfEmpty(Mono.error(ApiException.unauthorized("Account is no longer active")))
+                        .flatMap(account -> roles(account)
+                                .map(roles -> issue(account, roles, caller.sessionId()))));
+    }
+
+    /**
+     * Revokes the given access token and, when present, the refresh token issued with it,
+     * and closes their session. Revoking an already revoked token is not an error.
+     */
+    public Mono<Void> logout(String accessToken, String refreshToken) {
+        if (accessToken == null) {
+            return Mono.error(ApiException.unauthorized("Authentication is required"));
+        }
+        Mono<Boolean> access = Mono.fromCallable(() -> tokens.verifyAccess(accessToken))
+                .flatMap(caller -> revocations.revoke(caller.tokenId(), caller.accountId(), caller.expiresAt())
+                        .flatMap(revoked -> caller.sessionId() == null
+                                ? Mono.just(revoked)
+                                : sessionService.softDelete(caller.sessionId())
+                                        .onErrorResume(ApiException.class, e -> Mono.empty())
+                                        .thenReturn(revoked)));
+        Mono<Boolean> refresh = refreshToken == null || refreshToken.isBlank()
+                ? Mono.empty()
+                : Mono.fromCallable(() -> tokens.verifyRefresh(refreshToken.trim()))
+                        .flatMap(caller -> revocations.revoke(caller.tokenId(), caller.accountId(), caller.expiresAt()));
+        return access.then(refresh).then();
+    }
+
+    private Mono<Long> openSession(Account account, String ipAddress) {
+        // Opaque session key; clients authenticate with the JWTs, which carry the session id
+        String sessionKey = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        return sessionRepository.insertForLogin(account.getId(), sessionKey, TokenDigest.sha256(sessionKey),
+                        ipAddress, now.plus(tokens.refreshTtl()), now)
+                .switchIfEmpty(Mono.error(ApiException.unauthorized("Account is inactive")));
+    }
+
+    private Mono<Set<String>> roles(Account account) {
+        return roleCache.get(account.getId())
+                .map(AccountRoles::names)
+                .defaultIfEmpty(Set.of());
+    }
+
+    private TokenResponse issue(Account account, Set<String> roles, Long sessionId) {
+        return TokenResponse.bearer(tokens.issue(account.getId(), account.getUsername(), roles, sessionId));
+    }
+}
@@ -1,29 +1,46 @@
 package ao.creativemode.kixi.service;
 
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.cache.CatalogCache;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
+import ao.creativemode.kixi.common.search.SearchRequest;
 import ao.creativemode.kixi.dto.courses.CourseRequest;
 import ao.creativemode.kixi.dto.courses.CourseResponse;
 import ao.creativemode.kixi.model.Course;
 import ao.creativemode.kixi.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class CourseService {
 
     private final CourseRepository repository;
+    private final MultiRowInsert multiRowInsert;
+    private final CatalogCache<CourseResponse> catalog;
 
-    public CourseService(CourseRepository repository) {
+    public CourseService(CourseRepository repository, MultiRowInsert multiRowInsert,
+                         @Value("${kixi.catalogs.max-age:PT1M}") Duration catalogMaxAge) {
         this.repository = repository;
+        this.multiRowInsert = multiRowInsert;
+        this.catalog = new CatalogCache<>(
+                () -> repository.findAllByDeletedAtIsNull().map(this::toResponse),
+                CourseResponse::id, CourseResponse::updatedAt, catalogMaxAge);
     }
 
     public Flux<CourseResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .map(this::toResponse);
+        return catalog.snapshot().flatMapIterable(CatalogCache.Snapshot::items);
     }
 
     public Flux<CourseResponse> findAllDeleted() {
@@ -31,36 +48,55 @@ public class CourseService {
                 .map(this::toResponse);
     }
 
-    public Mono<CourseResponse> findByIdActive(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
-                .switchIfEmpty(Mono.error(ApiException.notFound("Course not found")))
+    public Flux<CourseResponse> findActivePage(long after, int limit) {
+        return catalog.snapshot().flatMapIterable(snapshot -> snapshot.pageAfter(after, limit));
+    }
+
+    public Flux<CourseResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit)
                 .map(this::toResponse);
     }
 
-    public Mono<CourseResponse> create(CourseRequest request) {
-        String code = request.code().trim().toUpperCase();
-        String name = request.name().trim();
-        String description = request.description() != null ? request.description().trim() : null;
+    public Mono<CourseResponse> findByIdActive(Long id) {
+        return catalog.snapshot()
+                .mapNotNull(snapshot -> snapshot.get(id))
+                .switchIfEmpty(Mono.error(ApiException.notFound("Course not found")));
+    }
 
-        Course entity = new Course();
-        entity.setCode(code);
-        entity.setName(name);
-        entity.setDescription(description);
-        entity.setDeletedAt(null);
+    /**
+     * Current snapshot of the active catalog, used for conditional requests.
+     */
+    public Mono<CatalogCache.Snapshot<CourseResponse>> activeSnapshot() {
+        return catalog.snapshot();
+    }
+
+    /**
+     * Ranked search over active courses by code or name, at most {@code search.size()} results.
+     */
+    public Flux<CourseResponse> search(SearchRequest search) {
+        return repository.search(search.term(), search.pattern(), search.size());
+    }
+
+    public Mono<CourseResponse> create(CourseRequest request) {
+        Course entity = newCourse(request);
+        String code = entity.getCode();
 
         return repository.save(entity)
                 .map(this::toResponse)
                 .onErrorMap(DataIntegrityViolationException.class,
-                        e -> ApiException.conflict("A course with code " + code + " already exists"));
+                        e -> ApiException.conflict("A course with code " + code + " already exists"))
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
-    public Mono<CourseResponse> update(Long id, CourseRequest request) {
+    public Mono<CourseResponse> update(Long id, CourseRequest request, Long expectedVersion) {
         String code = request.code().trim().toUpperCase();
         String name = request.name().trim();
         String description = request.description() != null ? request.description().trim() : null;
 
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Course not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("Course has changed since it was read")))
                 .flatMap(entity -> {
                     entity.setCode(code);
                     entity.setName(name);
@@ -71,37 +107,68 @@ public class CourseService {
                             .onErrorMap(DataIntegrityViolationException.class,
                                     e -> ApiException.conflict("Another course with code " + code + " already exists"));
                 })
-                .map(this::toResponse);
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("Course was modified concurrently"))
+                .map(this::toResponse)
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Course not found")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(LocalDateTime.now());
-                    return repository.save(entity);
-                })
-                .then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Course is not deleted")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(null);
-                    return repository.save(entity);
-                })
-                .then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                    Mono.error(ApiException.badRequest("Only deleted courses can be permanently removed")))
-                .flatMap(repository::delete)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted courses can be permanently removed")))
                 .then();
     }
 
+    /**
+     * Creates courses in chunks, one multi-row INSERT per chunk. Duplicate codes
+     * are reported on their item instead of failing the chunk.
+     */
+    public Flux<BatchResult<CourseResponse>> createBatch(List<BatchItem<CourseRequest>> items) {
+        List<Course> entities = Batches.values(items).stream().map(this::newCourse).toList();
+        return multiRowInsert.insertIgnoringConflicts(Course.class, entities, Course::getCode)
+                .flatMapMany(inserted -> Batches.created(items, inserted, this::toResponse,
+                        i -> ApiException.conflict("A course with code " + entities.get(i).getCode() + " already exists")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("Course not found")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("Course is not deleted")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    private Course newCourse(CourseRequest request) {
+        Course entity = new Course();
+        entity.setCode(request.code().trim().toUpperCase());
+        entity.setName(request.name().trim());
+        entity.setDescription(request.description() != null ? request.description().trim() : null);
+        entity.setDeletedAt(null);
+        return entity;
+    }
+
     private CourseResponse toResponse(Course entity) {
         return new CourseResponse(
                 entity.getId(),
@@ -110,7 +177,8 @@ public class CourseService {
                 entity.getDescription(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt()
+                entity.getDeletedAt(),
+                entity.getVersion()
         );
     }
 }
\ No newline at end of file
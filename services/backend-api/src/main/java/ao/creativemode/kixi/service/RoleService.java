@@ -1,29 +1,47 @@
 package ao.creativemode.kixi.service;
 
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.cache.CatalogCache;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
 import ao.creativemode.kixi.dto.roles.RoleRequest;
 import ao.creativemode.kixi.dto.roles.RoleResponse;
 import ao.creativemode.kixi.model.Role;
 import ao.creativemode.kixi.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class RoleService {
 
     private final RoleRepository repository;
+    private final MultiRowInsert multiRowInsert;
+    private final AccountRoleCache accountRoleCache;
+    private final CatalogCache<RoleResponse> catalog;
 
-    public RoleService(RoleRepository repository) {
+    public RoleService(RoleRepository repository, MultiRowInsert multiRowInsert, AccountRoleCache accountRoleCache,
+                       @Value("${kixi.catalogs.max-age:PT1M}") Duration catalogMaxAge) {
         this.repository = repository;
+        this.multiRowInsert = multiRowInsert;
+        this.accountRoleCache = accountRoleCache;
+        this.catalog = new CatalogCache<>(
+                () -> repository.findAllByDeletedAtIsNull().map(this::toResponse),
+                RoleResponse::id, RoleResponse::updatedAt, catalogMaxAge);
     }
 
     public Flux<RoleResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .map(this::toResponse);
+        return catalog.snapshot().flatMapIterable(CatalogCache.Snapshot::items);
     }
 
     public Flux<RoleResponse> findAllDeleted() {
@@ -31,33 +49,47 @@ public class RoleService {
                 .map(this::toResponse);
     }
 
-    public Mono<RoleResponse> findByIdActive(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
-                .switchIfEmpty(Mono.error(ApiException.notFound("Role not found")))
+    public Flux<RoleResponse> findActivePage(long after, int limit) {
+        return catalog.snapshot().flatMapIterable(snapshot -> snapshot.pageAfter(after, limit));
+    }
+
+    public Flux<RoleResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit)
                 .map(this::toResponse);
     }
 
-    public Mono<RoleResponse> create(RoleRequest request) {
-        String name = request.name().trim().toUpperCase();
-        String description = request.description() != null ? request.description().trim() : null;
+    public Mono<RoleResponse> findByIdActive(Long id) {
+        return catalog.snapshot()
+                .mapNotNull(snapshot -> snapshot.get(id))
+                .switchIfEmpty(Mono.error(ApiException.notFound("Role not found")));
+    }
 
-        Role entity = new Role();
-        entity.setName(name);
-        entity.setDescription(description);
-        entity.setDeletedAt(null);
+    /**
+     * Current snapshot of the active catalog, used for conditional requests.
+     */
+    public Mono<CatalogCache.Snapshot<RoleResponse>> activeSnapshot() {
+        return catalog.snapshot();
+    }
+
+    public Mono<RoleResponse> create(RoleRequest request) {
+        Role entity = newRole(request);
+        String name = entity.getName();
 
         return repository.save(entity)
                 .map(this::toResponse)
                 .onErrorMap(DataIntegrityViolationException.class,
-                        e -> ApiException.conflict("A role with name " + name + " already exists"));
+                        e -> ApiException.conflict("A role with name " + name + " already exists"))
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
-    public Mono<RoleResponse> update(Long id, RoleRequest request) {
+    public Mono<RoleResponse> update(Long id, RoleRequest request, Long expectedVersion) {
         String name = request.name().trim().toUpperCase();
         String description = request.description() != null ? request.description().trim() : null;
 
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Role not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("Role has changed since it was read")))
                 .flatMap(entity -> {
                     entity.setName(name);
                     entity.setDescription(description);
@@ -67,27 +99,65 @@ public class RoleService {
                             .onErrorMap(DataIntegrityViolationException.class,
                                     e -> ApiException.conflict("Another role with name " + name + " already exists"));
                 })
-                .map(this::toResponse);
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("Role was modified concurrently"))
+                .doOnNext(saved -> accountRoleCache.invalidateAll())
+                .map(this::toResponse)
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Role not found")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(LocalDateTime.now());
-                    return repository.save(entity);
-                })
-                .then();
+                .then()
+                .doOnSuccess(v -> accountRoleCache.invalidateAll())
+                .then(catalog.refresh());
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Role is not deleted")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(null);
-                    return repository.save(entity);
-                })
-                .then();
+                .then()
+                .doOnSuccess(v -> accountRoleCache.invalidateAll())
+                .then(catalog.refresh());
+    }
+
+    /**
+     * Creates roles in chunks, one multi-row INSERT per chunk. Duplicate names
+     * are reported on their item instead of failing the chunk.
+     */
+    public Flux<BatchResult<RoleResponse>> createBatch(List<BatchItem<RoleRequest>> items) {
+        List<Role> entities = Batches.values(items).stream().map(this::newRole).toList();
+        return multiRowInsert.insertIgnoringConflicts(Role.class, entities, Role::getName)
+                .flatMapMany(inserted -> Batches.created(items, inserted, this::toResponse,
+                        i -> ApiException.conflict("A role with name " + entities.get(i).getName() + " already exists")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .doOnNext(deleted -> accountRoleCache.invalidateAll())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("Role not found")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .doOnNext(restored -> accountRoleCache.invalidateAll())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("Role is not deleted")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    private Role newRole(RoleRequest request) {
+        Role entity = new Role();
+        entity.setName(request.name().trim().toUpperCase());
+        entity.setDescription(request.description() != null ? request.description().trim() : null);
+        entity.setDeletedAt(null);
+        return entity;
     }
 
     private RoleResponse toResponse(Role entity) {
@@ -97,15 +167,15 @@ public class RoleService {
                 entity.getDescription(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt()
+                entity.getDeletedAt(),
+                entity.getVersion()
         );
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                        Mono.error(ApiException.badRequest("Only deleted roles can be permanently removed")))
-                .flatMap(repository::delete)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted roles can be permanently removed")))
                 .then();
     }
 }
@@ -4,29 +4,45 @@ import ao.creativemode.kixi.model.SchoolYear;
 import ao.creativemode.kixi.repository.SchoolYearRepository;
 import ao.creativemode.kixi.dto.schoolyears.SchoolYearResponse;
 import ao.creativemode.kixi.dto.schoolyears.SchoolYearRequest;
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.cache.CatalogCache;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 @Service
 public class SchoolYearService {
 
     private final SchoolYearRepository repository;
+    private final MultiRowInsert multiRowInsert;
+    private final CatalogCache<SchoolYearResponse> catalog;
 
-    public SchoolYearService(SchoolYearRepository repository) {
+    public SchoolYearService(SchoolYearRepository repository, MultiRowInsert multiRowInsert,
+                             @Value("${kixi.catalogs.max-age:PT1M}") Duration catalogMaxAge) {
         this.repository = repository;
+        this.multiRowInsert = multiRowInsert;
+        this.catalog = new CatalogCache<>(
+                () -> repository.findAllByDeletedAtIsNull().map(this::toResponse),
+                SchoolYearResponse::id, SchoolYearResponse::updatedAt, catalogMaxAge);
     }
 
     public Flux<SchoolYearResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .map(this::toResponse);
+        return catalog.snapshot().flatMapIterable(CatalogCache.Snapshot::items);
     }
 
     public Flux<SchoolYearResponse> findAllDeleted() {
@@ -34,32 +50,46 @@ public class SchoolYearService {
                 .map(this::toResponse);
     }
 
-    public Mono<SchoolYearResponse> findByIdActive(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
-                .switchIfEmpty(Mono.error(ApiException.notFound("School year not found")))
+    public Flux<SchoolYearResponse> findActivePage(long after, int limit) {
+        return catalog.snapshot().flatMapIterable(snapshot -> snapshot.pageAfter(after, limit));
+    }
+
+    public Flux<SchoolYearResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit)
                 .map(this::toResponse);
     }
 
+    public Mono<SchoolYearResponse> findByIdActive(Long id) {
+        return catalog.snapshot()
+                .mapNotNull(snapshot -> snapshot.get(id))
+                .switchIfEmpty(Mono.error(ApiException.notFound("School year not found")));
+    }
+
+    /**
+     * Current snapshot of the active catalog, used for conditional requests.
+     */
+    public Mono<CatalogCache.Snapshot<SchoolYearResponse>> activeSnapshot() {
+        return catalog.snapshot();
+    }
+
     public Mono<SchoolYearResponse> create(SchoolYearRequest dto) {
         if (dto.startYear() >= dto.endYear()) {
             return Mono.error(ApiException.badRequest("Start year must be less than end year"));
         }
 
-        SchoolYear entity = new SchoolYear();
-        entity.setStartYear(dto.startYear());
-        entity.setEndYear(dto.endYear());
-        entity.setDeletedAt(null);
-
-        return repository.save(entity)
+        return repository.save(newSchoolYear(dto))
                 .map(this::toResponse)
                 .onErrorMap(DataIntegrityViolationException.class,
                         e -> ApiException.conflict("A school year with start year " + dto.startYear() +
-                                " and end year " + dto.endYear() + " already exists."));
+                                " and end year " + dto.endYear() + " already exists."))
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
-    public Mono<SchoolYearResponse> update(Long id, SchoolYearRequest dto) {
+    public Mono<SchoolYearResponse> update(Long id, SchoolYearRequest dto, Long expectedVersion) {
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("School year not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("School year has changed since it was read")))
                 .flatMap(entity -> {
                     Integer newStart = dto.startYear() != null ? dto.startYear() : entity.getStartYear();
                     Integer newEnd = dto.endYear() != null ? dto.endYear() : entity.getEndYear();
@@ -77,37 +107,75 @@ public class SchoolYearService {
                                     e -> ApiException.conflict("Another school year already exists with start year " +
                                             newStart + " and end year " + newEnd + "."));
                 })
-                .map(this::toResponse);
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("School year was modified concurrently"))
+                .map(this::toResponse)
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("School year not found")))
-                .flatMap(entity -> {
-                    entity.markAsDeleted();
-                    return repository.save(entity);
-                })
-                .then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("School year is not deleted")))
-                .flatMap(entity -> {
-                    entity.restore();
-                    return repository.save(entity);
-                })
-                .then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                        Mono.error(ApiException.badRequest("Only deleted school years can be permanently removed")))
-                .flatMap(repository::delete)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted school years can be permanently removed")))
                 .then();
     }
 
+    /**
+     * Creates school years in chunks, one multi-row INSERT per chunk. Invalid
+     * ranges and duplicates are reported on their item instead of failing the chunk.
+     */
+    public Flux<BatchResult<SchoolYearResponse>> createBatch(List<BatchItem<SchoolYearRequest>> items) {
+        return Batches.filter(items, dto -> dto.startYear() < dto.endYear(),
+                        dto -> ApiException.badRequest("Start year must be less than end year"),
+                        this::insertBatch)
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("School year not found")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("School year is not deleted")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    private Flux<BatchResult<SchoolYearResponse>> insertBatch(List<BatchItem<SchoolYearRequest>> items) {
+        List<SchoolYear> entities = Batches.values(items).stream().map(this::newSchoolYear).toList();
+        return multiRowInsert.insertIgnoringConflicts(SchoolYear.class, entities,
+                        entity -> entity.getStartYear() + "/" + entity.getEndYear())
+                .flatMapMany(inserted -> Batches.created(items, inserted, this::toResponse,
+                        i -> ApiException.conflict("A school year with start year " + entities.get(i).getStartYear() +
+                                " and end year " + entities.get(i).getEndYear() + " already exists.")));
+    }
+
+    private SchoolYear newSchoolYear(SchoolYearRequest dto) {
+        SchoolYear entity = new SchoolYear();
+        entity.setStartYear(dto.startYear());
+        entity.setEndYear(dto.endYear());
+        entity.setDeletedAt(null);
+        return entity;
+    }
+
     private SchoolYearResponse toResponse(SchoolYear entity) {
         return new SchoolYearResponse(
                 entity.getId(),
@@ -115,6 +183,7 @@ public class SchoolYearService {
                 entity.getEndYear(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt());
+                entity.getDeletedAt(),
+                entity.getVersion());
     }
 }
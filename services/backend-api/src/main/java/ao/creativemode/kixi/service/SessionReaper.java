@@ -0,0 +1,145 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Background reaper that keeps the sessions table small.
+ * Each run soft-deletes expired sessions and purges sessions deleted longer
+ * than the retention period. Work is done in bounded batches of short
+ * statements, so no run holds locks on many rows at once. Runs are jittered
+ * so replicas do not all hit the table at the same moment.
+ */
+@Component
+public class SessionReaper implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionReaper.class);
+
+    private final SessionRepository repository;
+    private final boolean enabled;
+    private final Duration interval;
+    private final Duration jitter;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter expiredCounter;
+    private final Counter purgedCounter;
+    private final DistributionSummary expiredPerRun;
+    private final DistributionSummary purgedPerRun;
+
+    private Disposable loop;
+
+    public SessionReaper(
+            SessionRepository repository,
+            MeterRegistry registry,
+            @Value("${kixi.sessions.reaper.enabled:true}") boolean enabled,
+            @Value("${kixi.sessions.reaper.interval:PT5M}") Duration interval,
+            @Value("${kixi.sessions.reaper.jitter:PT1M}") Duration jitter,
+            @Value("${kixi.sessions.reaper.retention:P7D}") Duration retention,
+            @Value("${kixi.sessions.reaper.batch-size:1000}") int batchSize,
+            @Value("${kixi.sessions.reaper.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.jitter = jitter;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.expiredCounter = reapedCounter(registry, "expired");
+        this.purgedCounter = reapedCounter(registry, "purged");
+        this.expiredPerRun = perRunSummary(registry, "expired");
+        this.purgedPerRun = perRunSummary(registry, "purged");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        loop = Mono.defer(() -> Mono.delay(nextDelay()))
+                .then(Mono.defer(this::reap))
+                .repeat()
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    /**
+     * Runs one reaping pass.
+     */
+    public Mono<Void> reap() {
+        Mono<Long> expired = drain(() -> repository.softDeleteExpired(batchSize))
+                .doOnNext(count -> record(count, expiredCounter, expiredPerRun));
+        Mono<Long> purged = drain(() -> repository.purgeDeletedOlderThan(retention.toSeconds(), batchSize))
+                .doOnNext(count -> record(count, purgedCounter, purgedPerRun));
+
+        return expired.zipWith(purged)
+                .doOnNext(counts -> {
+                    if (counts.getT1() > 0 || counts.getT2() > 0) {
+                        log.info("Session reaper expired {} and purged {} sessions", counts.getT1(), counts.getT2());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("Session reaper run failed", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Repeats a batch statement until it affects fewer rows than a full batch,
+     * or the per-run batch limit is reached.
+     */
+    private Mono<Long> drain(Supplier<Mono<Integer>> batch) {
+        return Flux.defer(() -> Mono.defer(batch))
+                .repeat(maxBatchesPerRun - 1L)
+                .takeUntil(affected -> affected < batchSize)
+                .reduce(0L, (total, affected) -> total + affected);
+    }
+
+    private Duration nextDelay() {
+        long jitterMillis = jitter.toMillis();
+        long extra = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0L;
+        return interval.plusMillis(extra);
+    }
+
+    private static void record(long count, Counter counter, DistributionSummary perRun) {
+        counter.increment(count);
+        perRun.record(count);
+    }
+
+    private static Counter reapedCounter(MeterRegistry registry, String action) {
+        return Counter.builder("kixi.sessions.reaped")
+                .description("Sessions removed by the reaper")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    private static DistributionSummary perRunSummary(MeterRegistry registry, String action) {
+        return DistributionSummary.builder("kixi.sessions.reaped.per_run")
+                .description("Sessions removed per reaper run")
+                .tag("action", action)
+                .register(registry);
+    }
+}
@@ -6,13 +6,22 @@ import ao.creativemode.kixi.repository.SessionRepository;
 import ao.creativemode.kixi.repository.AccountRepository;
 import ao.creativemode.kixi.dto.sessions.SessionResponse;
 import ao.creativemode.kixi.dto.sessions.SessionRequest;
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
+import ao.creativemode.kixi.security.TokenDigest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
@@ -21,22 +30,43 @@ public class SessionService {
 
     private final SessionRepository repository;
     private final AccountRepository accountRepository;
-
-    public SessionService(SessionRepository repository, AccountRepository accountRepository) {
+    private final SessionTokenCache tokenCache;
+    private final ActivityWriteBehind activity;
+    private final MultiRowInsert multiRowInsert;
+
+    public SessionService(SessionRepository repository,
+                          AccountRepository accountRepository,
+                          SessionTokenCache tokenCache,
+                          ActivityWriteBehind activity,
+                          MultiRowInsert multiRowInsert) {
         this.repository = repository;
         this.accountRepository = accountRepository;
+        this.tokenCache = tokenCache;
+        this.activity = activity;
+        this.multiRowInsert = multiRowInsert;
     }
 
     public Flux<SessionResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .flatMap(this::loadAccountRelationship)
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNull();
     }
 
     public Flux<SessionResponse> findAllDeleted() {
-        return repository.findAllByDeletedAtIsNotNull()
-                .flatMap(this::loadAccountRelationship)
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNotNull();
+    }
+
+    public Flux<SessionResponse> findActivePage(long after, int limit) {
+        return repository.findActivePage(after, limit);
+    }
+
+    public Flux<SessionResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit);
+    }
+
+    /**
+     * Row count and latest modification of the active rows, for collection ETags.
+     */
+    public Mono<CollectionStamp> findActiveStamp() {
+        return repository.findActiveStamp();
     }
 
     public Mono<SessionResponse> findByIdActive(Long id) {
@@ -46,38 +76,40 @@ public class SessionService {
                 .map(this::toResponse);
     }
 
-    public Mono<SessionResponse> create(SessionRequest dto) {
-        String normalizedToken = dto.token() != null ? dto.token().trim() : null;
-        String normalizedIpAddress = dto.ipAddress() != null ? dto.ipAddress().trim() : null;
-
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime expiresAt = dto.expiresAt() != null
-                ? dto.expiresAt()
-                : now.plus(DEFAULT_SESSION_EXPIRY_HOURS, ChronoUnit.HOURS);
-
-        Session entity = Session.builder()
-                .accountId(dto.accountId())
-                .token(normalizedToken)
-                .ipAddress(normalizedIpAddress)
-                .expiresAt(expiresAt)
-                .lastUsed(now)
-                .createdAt(now)
-                .updatedAt(now)
-                .build();
+    /**
+     * Resolves an active, unexpired session by its token.
+     * Lookups go through the token digest index and are served from memory once cached.
+     * The session's last_used heartbeat is written behind and reported in the
+     * response; the cached Session is shared by concurrent requests and never modified.
+     */
+    public Mono<SessionResponse> findActiveByToken(String token) {
+        byte[] tokenHash = TokenDigest.sha256(token.trim());
+        return tokenCache.get(tokenHash, () -> repository.findActiveByTokenHash(tokenHash))
+                .switchIfEmpty(Mono.error(ApiException.notFound("Session not found")))
+                .map(session -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    activity.touchSession(session.getId(), now);
+                    return toResponse(session, now);
+                });
+    }
 
-        return repository.save(entity)
+    public Mono<SessionResponse> create(SessionRequest dto) {
+        return repository.save(newSession(dto))
                 .map(this::toResponse);
     }
 
-    public Mono<SessionResponse> update(Long id, SessionRequest dto) {
+    public Mono<SessionResponse> update(Long id, SessionRequest dto, Long expectedVersion) {
         String normalizedToken = dto.token() != null ? dto.token().trim() : null;
         String normalizedIpAddress = dto.ipAddress() != null ? dto.ipAddress().trim() : null;
 
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Session not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("Session has changed since it was read")))
                 .flatMap(entity -> {
                     entity.setAccountId(dto.accountId());
                     entity.setToken(normalizedToken);
+                    entity.setTokenHash(TokenDigest.sha256(normalizedToken));
                     entity.setIpAddress(normalizedIpAddress);
                     if (dto.expiresAt() != null) {
                         entity.setExpiresAt(dto.expiresAt());
@@ -86,35 +118,87 @@ public class SessionService {
 
                     return repository.save(entity);
                 })
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("Session was modified concurrently"))
+                .doOnNext(saved -> tokenCache.invalidate(saved.getId()))
                 .map(this::toResponse);
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Session not found")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(LocalDateTime.now());
-                    return repository.save(entity);
-                })
-                .then();
+                .then()
+                .doOnSuccess(v -> tokenCache.invalidate(id));
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Session is not deleted")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(null);
-                    return repository.save(entity);
-                })
                 .then();
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                        Mono.error(ApiException.badRequest("Only deleted sessions can be permanently removed")))
-                .flatMap(repository::delete)
-                .then();
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted sessions can be permanently removed")))
+                .then()
+                .doOnSuccess(v -> tokenCache.invalidate(id));
+    }
+
+    /**
+     * Creates sessions in chunks. Account ids are checked with one query per chunk,
+     * then the sessions are written with one multi-row INSERT; duplicate tokens and
+     * missing accounts are reported on their item instead of failing the chunk.
+     */
+    public Flux<BatchResult<SessionResponse>> createBatch(List<BatchItem<SessionRequest>> items) {
+        Long[] accountIds = items.stream().map(item -> item.value().accountId()).distinct().toArray(Long[]::new);
+        return accountRepository.findAllByIdInAndDeletedAtIsNull(accountIds)
+                .map(Account::getId)
+                .collect(Collectors.toSet())
+                .flatMapMany(existing -> Batches.filter(items, dto -> existing.contains(dto.accountId()),
+                        dto -> ApiException.notFound("Account not found"),
+                        accepted -> {
+                            List<Session> entities = Batches.values(accepted).stream().map(this::newSession).toList();
+                            return multiRowInsert.insertIgnoringConflicts(Session.class, entities, Session::getToken)
+                                    .flatMapMany(inserted -> Batches.created(accepted, inserted, this::toResponse,
+                                            i -> ApiException.conflict("Session token already exists")));
+                        }));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .doOnNext(tokenCache::invalidate)
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("Session not found")));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("Session is not deleted")));
+    }
+
+    private Session newSession(SessionRequest dto) {
+        String normalizedToken = dto.token() != null ? dto.token().trim() : null;
+        String normalizedIpAddress = dto.ipAddress() != null ? dto.ipAddress().trim() : null;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = dto.expiresAt() != null
+                ? dto.expiresAt()
+                : now.plus(DEFAULT_SESSION_EXPIRY_HOURS, ChronoUnit.HOURS);
+
+        return Session.builder()
+                .accountId(dto.accountId())
+                .token(normalizedToken)
+                .tokenHash(TokenDigest.sha256(normalizedToken))
+                .ipAddress(normalizedIpAddress)
+                .expiresAt(expiresAt)
+                .lastUsed(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
     }
 
     /**
@@ -133,16 +217,21 @@ public class SessionService {
     }
 
     private SessionResponse toResponse(Session entity) {
+        return toResponse(entity, entity.getLastUsed());
+    }
+
+    private SessionResponse toResponse(Session entity, LocalDateTime lastUsed) {
         return new SessionResponse(
                 entity.getId(),
                 entity.getAccountId(),
                 entity.getToken(),
                 entity.getIpAddress(),
                 entity.getExpiresAt(),
-                entity.getLastUsed(),
+                lastUsed,
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt()
+                entity.getDeletedAt(),
+                entity.getVersion()
         );
     }
 }
@@ -0,0 +1,109 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.model.Session;
+import ao.creativemode.kixi.security.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of active sessions keyed by token digest.
+ * An entry lives until the session expires, capped at {@code max-ttl} so that
+ * revocations made on other replicas are picked up within that window.
+ * Local changes invalidate entries explicitly by session id. A load that was
+ * in flight when an invalidation ran is returned to its caller but not cached,
+ * since it may have read the row before the change.
+ */
+@Component
+public class SessionTokenCache {
+
+    private final Cache<String, Session> cache;
+    private final Map<Long, String> keysBySessionId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Duration maxTtl;
+
+    public SessionTokenCache(
+            MeterRegistry registry,
+            @Value("${kixi.sessions.token-cache.max-size:10000}") long maxSize,
+            @Value("${kixi.sessions.token-cache.max-ttl:5m}") Duration maxTtl) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new SessionExpiry())
+                .evictionListener((String key, Session session, RemovalCause cause) -> {
+                    if (session != null) {
+                        keysBySessionId.remove(session.getId(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "session_tokens");
+    }
+
+    /**
+     * Returns the cached session for the digest, or loads it and caches the result.
+     */
+    public Mono<Session> get(byte[] tokenHash, Supplier<Mono<Session>> loader) {
+        String key = TokenDigest.toHex(tokenHash);
+        Session cached = cache.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return Mono.just(cached);
+        }
+
+        // The session id is only known once loaded, so an invalidation cannot
+        // find a pending load by key; any invalidation during the load discards it.
+        long generation = invalidations.get();
+        return loader.get()
+                .doOnNext(session -> {
+                    keysBySessionId.put(session.getId(), key);
+                    cache.put(key, session);
+                    if (invalidations.get() != generation) {
+                        keysBySessionId.remove(session.getId(), key);
+                        cache.asMap().remove(key, session);
+                    }
+                });
+    }
+
+    public void invalidate(Long sessionId) {
+        invalidations.incrementAndGet();
+        String key = keysBySessionId.remove(sessionId);
+        if (key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    private final class SessionExpiry implements Expiry<String, Session> {
+
+        @Override
+        public long expireAfterCreate(String key, Session session, long currentTime) {
+            Duration untilExpiry = Duration.between(LocalDateTime.now(), session.getExpiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0L;
+            }
+            return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Session session, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Session session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
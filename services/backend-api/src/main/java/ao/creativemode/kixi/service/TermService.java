@@ -1,83 +1,146 @@
 package ao.creativemode.kixi.service;
 
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
+import ao.creativemode.kixi.common.cache.CatalogCache;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
 import ao.creativemode.kixi.dto.term.TermRequest;
 import ao.creativemode.kixi.dto.term.TermResponse;
 import ao.creativemode.kixi.model.Term;
 import ao.creativemode.kixi.repository.TermRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class TermService {
 
     private final TermRepository repository;
+    private final MultiRowInsert multiRowInsert;
+    private final CatalogCache<TermResponse> catalog;
 
-    public TermService(TermRepository repository) {
+    public TermService(TermRepository repository, MultiRowInsert multiRowInsert,
+                       @Value("${kixi.catalogs.max-age:PT1M}") Duration catalogMaxAge) {
         this.repository = repository;
+        this.multiRowInsert = multiRowInsert;
+        this.catalog = new CatalogCache<>(
+                () -> repository.findAllByDeletedAtIsNull().map(this::toResponse),
+                TermResponse::id, TermResponse::updatedAt, catalogMaxAge);
     }
 
     public Flux<TermResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull().map(this::toResponse);
+        return catalog.snapshot().flatMapIterable(CatalogCache.Snapshot::items);
     }
 
     public Flux<TermResponse> findAllDeleted() {
         return repository.findAllByDeletedAtIsNotNull().map(this::toResponse);
     }
 
+    public Flux<TermResponse> findActivePage(long after, int limit) {
+        return catalog.snapshot().flatMapIterable(snapshot -> snapshot.pageAfter(after, limit));
+    }
+
+    public Flux<TermResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit).map(this::toResponse);
+    }
+
     public Mono<TermResponse> findByIdActive(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
-                .switchIfEmpty(Mono.error(ApiException.notFound("Term not found")))
-                .map(this::toResponse);
+        return catalog.snapshot()
+                .mapNotNull(snapshot -> snapshot.get(id))
+                .switchIfEmpty(Mono.error(ApiException.notFound("Term not found")));
+    }
+
+    /**
+     * Current snapshot of the active catalog, used for conditional requests.
+     */
+    public Mono<CatalogCache.Snapshot<TermResponse>> activeSnapshot() {
+        return catalog.snapshot();
     }
 
     public Mono<TermResponse> create(TermRequest dto) {
-        Term entity = new Term();
-        entity.setName(dto.name());
-        entity.setNumber(dto.number());
-        return repository.save(entity).map(this::toResponse);
+        return repository.save(newTerm(dto)).map(this::toResponse)
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
-    public Mono<TermResponse> update(Long id, TermRequest dto) {
+    public Mono<TermResponse> update(Long id, TermRequest dto, Long expectedVersion) {
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Term not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("Term has changed since it was read")))
                 .flatMap(entity -> {
                     entity.setName(dto.name());
                     entity.setNumber(dto.number());
                     entity.setUpdatedAt(LocalDateTime.now());
                     return repository.save(entity);
                 })
-                .map(this::toResponse);
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("Term was modified concurrently"))
+                .map(this::toResponse)
+                .flatMap(response -> catalog.refresh().thenReturn(response));
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("Term not found")))
-                .flatMap(entity -> {
-                    entity.markAsDeleted();
-                    return repository.save(entity);
-                }).then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Term is not in trash")))
-                .flatMap(entity -> {
-                    entity.restore();
-                    return repository.save(entity);
-                }).then();
+                .then(catalog.refresh());
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("Only trashed terms can be purged")))
-                .flatMap(repository::delete);
+                .then();
+    }
+
+    /**
+     * Creates terms in chunks, one multi-row INSERT per chunk.
+     */
+    public Flux<BatchResult<TermResponse>> createBatch(List<BatchItem<TermRequest>> items) {
+        List<Term> entities = Batches.values(items).stream().map(this::newTerm).toList();
+        return multiRowInsert.insert(Term.class, entities)
+                .flatMapMany(inserted -> Batches.created(items, inserted, this::toResponse))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("Term not found")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("Term is not in trash")))
+                .concatWith(catalog.refresh().then(Mono.empty()));
+    }
+
+    private Term newTerm(TermRequest dto) {
+        Term entity = new Term();
+        entity.setName(dto.name());
+        entity.setNumber(dto.number());
+        return entity;
     }
 
     private TermResponse toResponse(Term entity) {
         return new TermResponse(entity.getId(), entity.getNumber(), entity.getName(),
-                entity.getCreatedAt(), entity.getUpdatedAt(), entity.getDeletedAt());
+                entity.getCreatedAt(), entity.getUpdatedAt(), entity.getDeletedAt(), entity.getVersion());
     }
 }
\ No newline at end of file
@@ -7,35 +7,63 @@ import ao.creativemode.kixi.repository.AccountRepository;
 import ao.creativemode.kixi.dto.users.UserResponse;
 import ao.creativemode.kixi.dto.users.UserRequest;
 import ao.creativemode.kixi.dto.users.UserResponseWithAccount;
-import ao.creativemode.kixi.dto.accounts.AccountBasicResponse;
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.common.batch.Batches;
 import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.web.CollectionStamp;
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
+import ao.creativemode.kixi.common.search.SearchRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
     private final UserRepository repository;
     private final AccountRepository accountRepository;
+    private final MultiRowInsert multiRowInsert;
 
-    public UserService(UserRepository repository, AccountRepository accountRepository) {
+    public UserService(UserRepository repository, AccountRepository accountRepository, MultiRowInsert multiRowInsert) {
         this.repository = repository;
         this.accountRepository = accountRepository;
+        this.multiRowInsert = multiRowInsert;
     }
 
     public Flux<UserResponse> findAllActive() {
-        return repository.findAllByDeletedAtIsNull()
-                .flatMap(this::loadAccountRelationship)
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNull();
     }
 
     public Flux<UserResponse> findAllDeleted() {
-        return repository.findAllByDeletedAtIsNotNull()
-                .flatMap(this::loadAccountRelationship)
-                .map(this::toResponse);
+        return repository.findAllByDeletedAtIsNotNull();
+    }
+
+    public Flux<UserResponse> findActivePage(long after, int limit) {
+        return repository.findActivePage(after, limit);
+    }
+
+    public Flux<UserResponse> findDeletedPage(long after, int limit) {
+        return repository.findDeletedPage(after, limit);
+    }
+
+    /**
+     * Row count and latest modification of the active rows, for collection ETags.
+     */
+    public Mono<CollectionStamp> findActiveStamp() {
+        return repository.findActiveStamp();
+    }
+
+    /**
+     * Ranked search over active users by name, at most {@code search.size()} results.
+     */
+    public Flux<UserResponse> search(SearchRequest search) {
+        return repository.search(search.term(), search.pattern(), search.size());
     }
 
     public Mono<UserResponse> findByIdActive(Long id) {
@@ -46,42 +74,29 @@ public class UserService {
     }
 
     public Mono<UserResponseWithAccount> findByIdActiveWithAccount(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.findByIdAndDeletedAtIsNullWithAccount(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("User not found")))
-                .flatMap(this::loadAccountRelationship)
-                .flatMap(user -> {
-                    if (user.getAccount() == null) {
-                        return Mono.error(ApiException.notFound("Account not found"));
-                    }
-                    return Mono.just(toResponseWithAccount(user));
-                });
+                .filter(found -> found.account() != null)
+                .switchIfEmpty(Mono.error(ApiException.notFound("Account not found")));
     }
 
     public Flux<UserResponse> findByAccountIdActive(Long accountId) {
-        return repository.findByAccountIdAndDeletedAtIsNull(accountId)
-                .flatMap(this::loadAccountRelationship)
-                .map(this::toResponse);
+        return repository.findByAccountIdAndDeletedAtIsNull(accountId);
     }
 
     public Mono<UserResponse> create(UserRequest dto) {
-        String normalizedFirstName = dto.firstName().trim();
-        String normalizedLastName = dto.lastName().trim();
-
-        User entity = new User(dto.accountId(), normalizedFirstName, normalizedLastName);
-        if (StringUtils.hasText(dto.photo())) {
-            entity.setPhoto(dto.photo().trim());
-        }
-
-        return repository.save(entity)
+        return repository.save(newUser(dto))
                 .map(this::toResponse);
     }
 
-    public Mono<UserResponse> update(Long id, UserRequest dto) {
+    public Mono<UserResponse> update(Long id, UserRequest dto, Long expectedVersion) {
         String normalizedFirstName = dto.firstName() != null ? dto.firstName().trim() : null;
         String normalizedLastName = dto.lastName() != null ? dto.lastName().trim() : null;
 
         return repository.findByIdAndDeletedAtIsNull(id)
                 .switchIfEmpty(Mono.error(ApiException.notFound("User not found")))
+                .filter(entity -> expectedVersion == null || expectedVersion.equals(entity.getVersion()))
+                .switchIfEmpty(Mono.error(ApiException.preconditionFailed("User has changed since it was read")))
                 .flatMap(entity -> {
                     entity.setAccountId(dto.accountId());
                     entity.setFirstName(normalizedFirstName);
@@ -95,37 +110,71 @@ public class UserService {
 
                     return repository.save(entity);
                 })
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> ApiException.conflict("User was modified concurrently"))
                 .map(this::toResponse);
     }
 
     public Mono<Void> softDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNull(id)
+        return repository.softDeleteById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.notFound("User not found")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(LocalDateTime.now());
-                    return repository.save(entity);
-                })
                 .then();
     }
 
     public Mono<Void> restore(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
+        return repository.restoreById(id)
+                .filter(affected -> affected > 0)
                 .switchIfEmpty(Mono.error(ApiException.badRequest("User is not deleted")))
-                .flatMap(entity -> {
-                    entity.setDeletedAt(null);
-                    return repository.save(entity);
-                })
                 .then();
     }
 
     public Mono<Void> hardDelete(Long id) {
-        return repository.findByIdAndDeletedAtIsNotNull(id)
-                .switchIfEmpty(
-                    Mono.error(ApiException.badRequest("Only deleted users can be permanently removed")))
-                .flatMap(repository::delete)
+        return repository.purgeById(id)
+                .filter(affected -> affected > 0)
+                .switchIfEmpty(Mono.error(ApiException.badRequest("Only deleted users can be permanently removed")))
                 .then();
     }
 
+    /**
+     * Creates users in chunks. Account ids are checked with one query per chunk,
+     * then the users are written with one multi-row INSERT; items pointing to a
+     * missing account are reported instead of failing the chunk.
+     */
+    public Flux<BatchResult<UserResponse>> createBatch(List<BatchItem<UserRequest>> items) {
+        Long[] accountIds = items.stream().map(item -> item.value().accountId()).distinct().toArray(Long[]::new);
+        return accountRepository.findAllByIdInAndDeletedAtIsNull(accountIds)
+                .map(Account::getId)
+                .collect(Collectors.toSet())
+                .flatMapMany(existing -> Batches.filter(items, dto -> existing.contains(dto.accountId()),
+                        dto -> ApiException.notFound("Account not found"),
+                        accepted -> {
+                            List<User> entities = Batches.values(accepted).stream().map(this::newUser).toList();
+                            return multiRowInsert.insert(User.class, entities)
+                                    .flatMapMany(inserted -> Batches.created(accepted, inserted, this::toResponse));
+                        }));
+    }
+
+    public Flux<BatchResult<Long>> softDeleteBatch(List<BatchItem<Long>> items) {
+        return repository.softDeleteAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(deleted -> Batches.byId(items, deleted, () -> ApiException.notFound("User not found")));
+    }
+
+    public Flux<BatchResult<Long>> restoreBatch(List<BatchItem<Long>> items) {
+        return repository.restoreAllById(Batches.values(items).toArray(Long[]::new))
+                .collect(Collectors.toSet())
+                .flatMapMany(restored -> Batches.byId(items, restored, () -> ApiException.badRequest("User is not deleted")));
+    }
+
+    private User newUser(UserRequest dto) {
+        User entity = new User(dto.accountId(), dto.firstName().trim(), dto.lastName().trim());
+        if (StringUtils.hasText(dto.photo())) {
+            entity.setPhoto(dto.photo().trim());
+        }
+        return entity;
+    }
+
     /**
      * Loads the Account relationship for a User entity.
      * This is necessary in R2DBC since it doesn't support lazy loading like JPA.
@@ -150,27 +199,8 @@ public class UserService {
                 entity.getPhoto(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt(),
-                entity.getDeletedAt()
-        );
-    }
-
-    private UserResponseWithAccount toResponseWithAccount(User user) {
-        Account account = user.getAccount();
-        AccountBasicResponse accountResponse = new AccountBasicResponse(
-                account.getId(),
-                account.getUsername(),
-                account.getEmail()
-        );
-
-        return new UserResponseWithAccount(
-                user.getId(),
-                accountResponse,
-                user.getFirstName(),
-                user.getLastName(),
-                user.getPhoto(),
-                user.getCreatedAt(),
-                user.getUpdatedAt(),
-                user.getDeletedAt()
+                entity.getDeletedAt(),
+                entity.getVersion()
         );
     }
 }
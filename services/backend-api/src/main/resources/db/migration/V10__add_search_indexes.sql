@@ -0,0 +1,10 @@
+-- Trigram indexes for the search endpoints. They serve both substring (ILIKE) and
+-- fuzzy (<%) matches on exactly the expressions the repository queries use.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_users_name_trgm ON users
+    USING gin ((first_name || ' ' || last_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX idx_accounts_username_email_trgm ON accounts
+    USING gin ((username || ' ' || email) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX idx_courses_code_name_trgm ON courses
+    USING gin ((code || ' ' || name) gin_trgm_ops) WHERE deleted_at IS NULL;
@@ -0,0 +1,12 @@
+-- Revoked JWT ids. Rows are only needed until the token would have expired anyway.
+CREATE TABLE revoked_tokens (
+   jti VARCHAR(64) PRIMARY KEY,
+   account_id BIGINT NOT NULL,
+   expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+   revoked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Supports the incremental refresh each replica runs ("revoked since my watermark")
+-- and the purge of rows whose token has expired.
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at) INCLUDE (jti, expires_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
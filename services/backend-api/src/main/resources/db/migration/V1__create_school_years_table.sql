@@ -10,5 +10,6 @@ CREATE TABLE school_years (
     CONSTRAINT chk_start_before_end CHECK (start_year < end_year)
 );
 
-CREATE INDEX idx_school_years_active    ON school_years (deleted_at) WHERE deleted_at IS NULL;
-CREATE INDEX idx_school_years_start_end ON school_years (start_year, end_year);
\ No newline at end of file
+-- Active rows by id: keyset pages walk it, and count/max(updated_at) for the
+-- collection ETag is answered from the index alone.
+CREATE INDEX idx_school_years_active ON school_years (id) INCLUDE (updated_at) WHERE deleted_at IS NULL;
@@ -1,16 +0,0 @@
-CREATE TABLE IF NOT EXISTS accounts (
-    id BIGSERIAL PRIMARY KEY,
-    username VARCHAR(100) NOT NULL UNIQUE,
-    email VARCHAR(150) NOT NULL UNIQUE,
-    password_hash VARCHAR(255) NOT NULL,
-    active BOOLEAN DEFAULT true NOT NULL,
-    last_login TIMESTAMP,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
-    deleted_at TIMESTAMP
-);
-
-CREATE INDEX idx_accounts_username ON accounts(username);
-CREATE INDEX idx_accounts_email ON accounts(email);
-CREATE INDEX idx_accounts_active ON accounts(active);
-CREATE INDEX idx_accounts_deleted_at ON accounts(deleted_at);
@@ -1,7 +1,7 @@
 CREATE TABLE accounts (
     id BIGSERIAL PRIMARY KEY,
-    username VARCHAR(100) NOT NULL UNIQUE,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    username VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
     email_verified BOOLEAN DEFAULT FALSE,
     active BOOLEAN DEFAULT TRUE,
@@ -13,7 +13,6 @@ CREATE TABLE accounts (
     CONSTRAINT uc_accounts_email UNIQUE (email)
 );
 
-CREATE INDEX idx_accounts_username ON accounts(username);
-CREATE INDEX idx_accounts_email ON accounts(email);
-CREATE INDEX idx_accounts_deleted_at ON accounts(deleted_at);
-CREATE INDEX idx_accounts_active ON accounts(active);
+-- Username and email lookups use the unique indexes; last_login is included
+-- because the collection ETag covers it.
+CREATE INDEX idx_accounts_active ON accounts (id) INCLUDE (updated_at, last_login) WHERE deleted_at IS NULL;
@@ -0,0 +1,11 @@
+CREATE TABLE roles (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    CONSTRAINT uc_roles_name UNIQUE (name)
+);
+
+CREATE INDEX idx_roles_active ON roles (id) INCLUDE (updated_at) WHERE deleted_at IS NULL;
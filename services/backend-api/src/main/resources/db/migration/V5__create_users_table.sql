@@ -1,4 +1,4 @@
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
     id BIGSERIAL PRIMARY KEY,
     account_id BIGINT NOT NULL,
     first_name VARCHAR(100) NOT NULL,
@@ -10,5 +10,5 @@ CREATE TABLE IF NOT EXISTS users (
     CONSTRAINT fk_users_account_id FOREIGN KEY (account_id) REFERENCES accounts(id)
 );
 
-CREATE INDEX idx_users_account_id ON users(account_id);
-CREATE INDEX idx_users_deleted_at ON users(deleted_at);
+CREATE INDEX idx_users_active ON users (id) INCLUDE (updated_at) WHERE deleted_at IS NULL;
+CREATE INDEX idx_users_account_id_active ON users (account_id) WHERE deleted_at IS NULL;
@@ -1,6 +1,6 @@
 CREATE TABLE courses (
     id BIGSERIAL PRIMARY KEY,
-    code VARCHAR(50) NOT NULL UNIQUE,
+    code VARCHAR(50) NOT NULL,
     name VARCHAR(255) NOT NULL,
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -9,5 +9,4 @@ CREATE TABLE courses (
     CONSTRAINT uc_courses_code UNIQUE (code)
 );
 
-CREATE INDEX idx_courses_code ON courses(code);
-CREATE INDEX idx_courses_deleted_at ON courses(deleted_at);
+CREATE INDEX idx_courses_active ON courses (id) INCLUDE (updated_at) WHERE deleted_at IS NULL;
@@ -0,0 +1,26 @@
+CREATE TABLE sessions (
+   id BIGSERIAL PRIMARY KEY,
+   account_id BIGINT NOT NULL,
+   token TEXT NOT NULL,
+   -- Fixed-width SHA-256 digest of the token, used for lookups instead of
+   -- probing the full-width TEXT unique index on every request.
+   token_hash BYTEA NOT NULL,
+   ip_address VARCHAR(45) NOT NULL,
+   expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+   last_used TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   deleted_at TIMESTAMP WITH TIME ZONE,
+   CONSTRAINT uc_sessions_token UNIQUE (token),
+   CONSTRAINT fk_sessions_account_id
+       FOREIGN KEY (account_id) REFERENCES accounts(id)
+);
+
+CREATE UNIQUE INDEX uq_sessions_token_hash ON sessions (token_hash);
+CREATE INDEX idx_sessions_active ON sessions (id) INCLUDE (updated_at, last_used) WHERE deleted_at IS NULL;
+CREATE INDEX idx_sessions_account_id_active ON sessions (account_id) WHERE deleted_at IS NULL;
+
+-- Supports the session reaper: finding expired live sessions and long-deleted ones
+-- without scanning the table.
+CREATE INDEX idx_sessions_expires_at_active ON sessions (expires_at) WHERE deleted_at IS NULL;
+CREATE INDEX idx_sessions_deleted_at ON sessions (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,15 @@
+CREATE TABLE account_roles (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    CONSTRAINT uq_account_role UNIQUE (account_id, role_id),
+    CONSTRAINT fk_account_roles_account FOREIGN KEY (account_id) REFERENCES accounts(id),
+    CONSTRAINT fk_account_roles_role FOREIGN KEY (role_id) REFERENCES roles(id)
+);
+
+-- Active assignments from either side. The included column lets role resolution
+-- join accounts -> account_roles -> roles with index-only scans.
+CREATE INDEX idx_account_roles_account_id_active ON account_roles (account_id) INCLUDE (role_id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_account_roles_role_id_active ON account_roles (role_id) INCLUDE (account_id) WHERE deleted_at IS NULL;
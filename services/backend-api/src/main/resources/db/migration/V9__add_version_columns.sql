@@ -0,0 +1,10 @@
+-- Optimistic locking: every write through the entity bumps version and is
+-- conditional on the version it read. Heartbeat columns (last_login, last_used)
+-- are written behind without touching it.
+ALTER TABLE school_years ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE terms ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE roles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE courses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sessions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,110 @@
+package ao.creativemode.kixi.common.batch;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchesTest {
+
+    record Item(@NotBlank String name) {
+    }
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        factory.close();
+    }
+
+    @Test
+    void answersInvalidAndValidItemsInRequestOrder() {
+        Flux<Item> body = Flux.just(new Item("a"), new Item(""), new Item("b"), new Item(" "));
+
+        List<BatchResult<String>> results = Batches.process(body, validator,
+                        (List<BatchItem<Item>> items) -> Flux.fromIterable(items)
+                                .map(item -> BatchResult.created(item.index(), item.value().name())))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BatchResult::status).containsExactly(201, 400, 201, 400);
+        assertThat(results.get(1).error()).contains("name");
+    }
+
+    @Test
+    void reordersResultsAHandlerAnswersOutOfOrder() {
+        Flux<Long> ids = Flux.just(10L, 11L, 12L);
+
+        List<BatchResult<Long>> results = Batches.process(ids,
+                        (List<BatchItem<Long>> items) -> Batches.filter(items, id -> id != 11L,
+                                id -> ApiException.notFound("missing"),
+                                accepted -> Batches.byId(accepted, List.of(10L, 12L), () -> ApiException.notFound("missing"))))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BatchResult::status).containsExactly(200, 404, 200);
+    }
+
+    @Test
+    void keepsOrderAcrossChunks() {
+        int count = Batches.CHUNK_SIZE * 2 + 7;
+        Flux<Long> ids = Flux.range(0, count).map(Long::valueOf);
+
+        List<BatchResult<Long>> results = Batches.process(ids,
+                        (List<BatchItem<Long>> items) -> Flux.fromIterable(items).map(item -> BatchResult.ok(item.index(), item.value())))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::index)
+                .containsExactlyElementsOf(IntStream.range(0, count).boxed().toList());
+    }
+
+    @Test
+    void reportsAFailedChunkOnEachOfItsItems() {
+        Flux<Long> ids = Flux.just(1L, 2L);
+
+        List<BatchResult<Long>> results = Batches.process(ids,
+                        (List<BatchItem<Long>> items) -> Flux.<BatchResult<Long>>error(new DataIntegrityViolationException("duplicate")))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::status).containsExactly(409, 409);
+    }
+
+    @Test
+    void pairsInsertedRowsWithTheirItems() {
+        List<BatchItem<String>> items = List.of(new BatchItem<>(3, "x"), new BatchItem<>(4, "y"));
+
+        List<BatchResult<String>> results = Batches.created(items,
+                        List.of(Optional.of("X"), Optional.<String>empty()),
+                        String::toString,
+                        position -> ApiException.conflict("exists at " + position))
+                .collectList()
+                .block();
+
+        assertThat(results).containsExactly(
+                BatchResult.created(3, "X"),
+                new BatchResult<>(4, 409, null, "exists at 1"));
+    }
+}
@@ -0,0 +1,121 @@
+package ao.creativemode.kixi.common.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ConcurrencyLimitWebFilterTest {
+
+    private final VegasLimiter reads = new VegasLimiter("read", 50, 1, 500);
+    private final VegasLimiter writes = new VegasLimiter("write", 1, 1, 1);
+    private final ConcurrencyLimitWebFilter filter = new ConcurrencyLimitWebFilter(reads, writes,
+            List.of("/actuator/**"), Duration.ofSeconds(2), new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void streamingResponseHoldsItsSlotUntilTheStreamEnds() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+        AtomicBoolean completed = new AtomicBoolean();
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(Flux.interval(Duration.ofMillis(100))
+                .take(5)
+                .map(i -> buffer("{\"id\":" + i + "}\n")));
+
+        filter.filter(exchange, chain)
+                .doOnSuccess(done -> completed.set(true))
+                .subscribe();
+
+        // Committed with the first row, but rows are still being streamed
+        await().atMost(Duration.ofSeconds(1)).until(() -> exchange.getResponse().isCommitted());
+        assertThat(completed).isFalse();
+        assertThat(reads.inFlight()).isEqualTo(1);
+
+        await().atMost(Duration.ofSeconds(2)).untilTrue(completed);
+        assertThat(reads.inFlight()).isZero();
+    }
+
+    @Test
+    void cancelledStreamReleasesItsSlot() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(Flux.interval(Duration.ofMillis(100))
+                .map(i -> buffer("{\"id\":" + i + "}\n")));
+
+        Disposable subscription = filter.filter(exchange, chain).subscribe();
+        await().atMost(Duration.ofSeconds(1)).until(() -> exchange.getResponse().isCommitted());
+        subscription.dispose();
+
+        assertThat(reads.inFlight()).isZero();
+        assertThat(reads.limit()).isEqualTo(50);
+    }
+
+    @Test
+    void serverErrorStatusCountsAsADrop() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+        WebFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ex.getResponse().setComplete();
+        };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(reads.inFlight()).isZero();
+        assertThat(reads.limit()).isLessThan(50);
+    }
+
+    @Test
+    void uncommittedErrorReleasesAsADrop() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+
+        filter.filter(exchange, ex -> Mono.error(new IllegalStateException("boom")))
+                .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+                .block();
+
+        assertThat(reads.inFlight()).isZero();
+        assertThat(reads.limit()).isLessThan(50);
+    }
+
+    @Test
+    void requestOverTheLimitIsShedWithRetryAfter() {
+        writes.tryAcquire();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/courses"));
+        AtomicBoolean handled = new AtomicBoolean();
+
+        filter.filter(exchange, ex -> Mono.fromRunnable(() -> handled.set(true))).block();
+
+        assertThat(handled).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(writes.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void excludedPathsBypassTheLimit() {
+        writes.tryAcquire();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/actuator/refresh"));
+        AtomicBoolean handled = new AtomicBoolean();
+
+        filter.filter(exchange, ex -> Mono.fromRunnable(() -> handled.set(true))).block();
+
+        assertThat(handled).isTrue();
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,104 @@
+package ao.creativemode.kixi.common.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VegasLimiterTest {
+
+    private static final long BASELINE = Duration.ofMillis(2).toNanos();
+
+    @Test
+    void admitsUpToTheLimit() {
+        VegasLimiter limiter = new VegasLimiter("test", 3, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(3);
+
+        limiter.abandon();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaseline() {
+        VegasLimiter limiter = new VegasLimiter("test", 10, 1, 1_000);
+
+        fullRound(limiter, BASELINE, false);
+        fullRound(limiter, BASELINE, false);
+
+        assertThat(limiter.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    void shrinksWhenRequestsQueue() {
+        VegasLimiter limiter = new VegasLimiter("test", 50, 1, 1_000);
+        limiter.tryAcquire();
+        limiter.release(BASELINE, false);
+
+        fullRound(limiter, BASELINE * 10, false);
+
+        assertThat(limiter.limit()).isLessThan(50);
+    }
+
+    @Test
+    void shrinksOnDrops() {
+        VegasLimiter limiter = new VegasLimiter("test", 50, 1, 1_000);
+
+        fullRound(limiter, BASELINE, true);
+
+        assertThat(limiter.limit()).isLessThan(50);
+    }
+
+    @Test
+    void ignoresLatencyWhenFarBelowTheLimit() {
+        VegasLimiter limiter = new VegasLimiter("test", 50, 1, 1_000);
+        limiter.tryAcquire();
+        limiter.release(BASELINE, false);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE * 10, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(50);
+    }
+
+    @Test
+    void staysWithinItsBounds() {
+        VegasLimiter limiter = new VegasLimiter("test", 5, 4, 8);
+
+        for (int i = 0; i < 10; i++) {
+            fullRound(limiter, BASELINE, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(8);
+
+        for (int i = 0; i < 10; i++) {
+            fullRound(limiter, BASELINE, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new VegasLimiter("test", 5, 0, 8)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new VegasLimiter("test", 5, 9, 8)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Fills every slot, then releases them all with the given latency
+    private static void fullRound(VegasLimiter limiter, long rttNanos, boolean dropped) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos, dropped);
+        }
+    }
+}
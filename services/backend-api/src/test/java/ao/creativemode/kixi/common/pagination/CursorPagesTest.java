@@ -0,0 +1,91 @@
+package ao.creativemode.kixi.common.pagination;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPagesTest {
+
+    private static final List<Long> IDS = LongStream.rangeClosed(1, 7).boxed().toList();
+
+    @Test
+    void cursorRoundTrips() {
+        assertThat(CursorPages.decode(CursorPages.encode(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        assertBadRequest(() -> CursorPages.decode("not base64!"));
+        assertBadRequest(() -> CursorPages.decode(CursorPages.encode(1L).substring(1)));
+        assertBadRequest(() -> new CursorRequest("aWQ6eA", null).afterId()); // "id:x"
+    }
+
+    @Test
+    void limitIsValidated() {
+        assertThat(new CursorRequest(null, null).isPaged()).isFalse();
+        assertThat(new CursorRequest(null, 10).size()).isEqualTo(10);
+        assertThat(new CursorRequest("", null).size()).isEqualTo(CursorRequest.DEFAULT_LIMIT);
+        assertThat(new CursorRequest("", null).afterId()).isZero();
+        assertBadRequest(() -> new CursorRequest(null, 0).size());
+        assertBadRequest(() -> new CursorRequest(null, CursorRequest.MAX_LIMIT + 1).size());
+    }
+
+    @Test
+    void unpagedRequestStreamsEverything() {
+        ResponseEntity<Flux<Long>> response = respond(new CursorRequest(null, null), new AtomicReference<>());
+
+        assertThat(response.getHeaders().containsKey(CursorPages.NEXT_CURSOR_HEADER)).isFalse();
+        assertThat(response.getBody().collectList().block()).isEqualTo(IDS);
+    }
+
+    @Test
+    void pagesWalkTheWholeListing() {
+        AtomicReference<long[]> lastQuery = new AtomicReference<>();
+
+        ResponseEntity<Flux<Long>> first = respond(new CursorRequest(null, 3), lastQuery);
+        assertThat(first.getBody().collectList().block()).containsExactly(1L, 2L, 3L);
+        assertThat(lastQuery.get()).containsExactly(0L, 4L);
+
+        String cursor = first.getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER);
+        ResponseEntity<Flux<Long>> second = respond(new CursorRequest(cursor, 3), lastQuery);
+        assertThat(second.getBody().collectList().block()).containsExactly(4L, 5L, 6L);
+
+        cursor = second.getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER);
+        ResponseEntity<Flux<Long>> last = respond(new CursorRequest(cursor, 3), lastQuery);
+        assertThat(last.getBody().collectList().block()).containsExactly(7L);
+        assertThat(last.getHeaders().containsKey(CursorPages.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextCursor() {
+        ResponseEntity<Flux<Long>> response = respond(new CursorRequest(null, IDS.size()), new AtomicReference<>());
+
+        assertThat(response.getBody().collectList().block()).isEqualTo(IDS);
+        assertThat(response.getHeaders().containsKey(CursorPages.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    private static ResponseEntity<Flux<Long>> respond(CursorRequest request, AtomicReference<long[]> lastQuery) {
+        return CursorPages.respond(request,
+                () -> Flux.fromIterable(IDS),
+                (after, limit) -> {
+                    lastQuery.set(new long[]{after, limit});
+                    return Flux.fromIterable(IDS).filter(id -> id > after).take(limit);
+                },
+                id -> id).block();
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,75 @@
+package ao.creativemode.kixi.common.r2dbc;
+
+import ao.creativemode.kixi.model.Course;
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiRowInsertTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MultiRowInsert multiRowInsert;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void insertFillsDefaultsAndKeepsInputOrder() {
+        List<Course> inserted = multiRowInsert.insert(Course.class,
+                        List.of(course("MRI-ORDER-B"), course("MRI-ORDER-A"), course("MRI-ORDER-C")))
+                .block();
+
+        assertThat(inserted).extracting(Course::getCode).containsExactly("MRI-ORDER-B", "MRI-ORDER-A", "MRI-ORDER-C");
+        assertThat(inserted).allSatisfy(course -> {
+            assertThat(course.getId()).isNotNull();
+            assertThat(course.getCreatedAt()).isNotNull();
+            assertThat(course.getVersion()).isZero();
+        });
+    }
+
+    @Test
+    void skippedRowsAreAlignedWithTheirInput() {
+        Course existing = multiRowInsert.insert(Course.class, List.of(course("MRI-EXISTING"))).block().get(0);
+
+        List<Optional<Course>> results = multiRowInsert.insertIgnoringConflicts(Course.class, List.of(
+                        course("MRI-NEW-1"),
+                        course("MRI-EXISTING"),
+                        course("MRI-NEW-2"),
+                        course("MRI-NEW-1")),
+                Course::getCode).block();
+
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0)).hasValueSatisfying(course -> assertThat(course.getCode()).isEqualTo("MRI-NEW-1"));
+        // Conflicts with a stored row and with an earlier row of the same statement
+        assertThat(results.get(1)).isEmpty();
+        assertThat(results.get(2)).hasValueSatisfying(course -> assertThat(course.getCode()).isEqualTo("MRI-NEW-2"));
+        assertThat(results.get(3)).isEmpty();
+        assertThat(databaseClient.sql("SELECT id FROM courses WHERE code = 'MRI-EXISTING'")
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block()).containsExactly(existing.getId());
+    }
+
+    @Test
+    void allRowsConflictingYieldsOnlyEmptyEntries() {
+        multiRowInsert.insert(Course.class, List.of(course("MRI-ALL-1"), course("MRI-ALL-2"))).block();
+
+        List<Optional<Course>> results = multiRowInsert.insertIgnoringConflicts(Course.class,
+                List.of(course("MRI-ALL-2"), course("MRI-ALL-1")), Course::getCode).block();
+
+        assertThat(results).containsExactly(Optional.empty(), Optional.empty());
+    }
+
+    private static Course course(String code) {
+        Course course = new Course();
+        course.setCode(code);
+        course.setName("Course " + code);
+        return course;
+    }
+}
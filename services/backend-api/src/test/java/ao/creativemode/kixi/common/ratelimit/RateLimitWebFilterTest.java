@@ -0,0 +1,104 @@
+package ao.creativemode.kixi.common.ratelimit;
+
+import ao.creativemode.kixi.security.AuthenticatedAccount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitWebFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RateLimiter perAddress = new RateLimiter("write_address", 2, Duration.ofMinutes(1), 100, registry);
+    private final RateLimiter perAccount = new RateLimiter("write_account", 1, Duration.ofMinutes(1), 100, registry);
+    private final RateLimitWebFilter filter = new RateLimitWebFilter(List.of(
+            RateLimitPolicy.of(Set.of(HttpMethod.POST), List.of("/api/v1/**"), perAddress, perAccount)),
+            new ObjectMapper());
+    private final AtomicInteger handled = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(handled::incrementAndGet);
+
+    @Test
+    void requestOverTheAddressLimitIsAnswered429WithItsQuota() {
+        filter.filter(post("10.0.0.1"), chain).block();
+        filter.filter(post("10.0.0.1"), chain).block();
+
+        MockServerWebExchange rejected = post("10.0.0.1");
+        filter.filter(rejected, chain).block();
+
+        assertThat(handled).hasValue(2);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        HttpHeaders headers = rejected.getResponse().getHeaders();
+        // The next token is period / limit = 30 s away
+        assertThat(headers.getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(headers.getFirst(RateLimitWebFilter.RATE_LIMIT_POLICY)).isEqualTo("\"write_address\";q=2;w=60");
+        assertThat(headers.getFirst(RateLimitWebFilter.RATE_LIMIT)).isEqualTo("\"write_address\";r=0;t=30");
+        assertThat(rejected.getResponse().getBodyAsString().block()).contains("Too Many Requests");
+    }
+
+    @Test
+    void addressesAreLimitedIndependently() {
+        filter.filter(post("10.0.0.1"), chain).block();
+        filter.filter(post("10.0.0.1"), chain).block();
+
+        MockServerWebExchange other = post("10.0.0.2");
+        filter.filter(other, chain).block();
+
+        assertThat(handled).hasValue(3);
+        assertThat(other.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void authenticatedRequestsAreAlsoLimitedPerAccount() {
+        filter.filter(post("10.0.0.1"), chain).contextWrite(context -> context.put(AuthenticatedAccount.CONTEXT_KEY, account()))
+                .block();
+
+        MockServerWebExchange rejected = post("10.0.0.2");
+        filter.filter(rejected, chain).contextWrite(context -> context.put(AuthenticatedAccount.CONTEXT_KEY, account()))
+                .block();
+
+        assertThat(handled).hasValue(1);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+        assertThat(rejected.getResponse().getHeaders().getFirst(RateLimitWebFilter.RATE_LIMIT_POLICY))
+                .isEqualTo("\"write_account\";q=1;w=60");
+    }
+
+    @Test
+    void requestsOutsideEveryPolicyAreNotCounted() {
+        for (int i = 0; i < 5; i++) {
+            filter.filter(exchange(MockServerHttpRequest.get("/api/v1/courses"), "10.0.0.1"), chain).block();
+        }
+
+        assertThat(handled).hasValue(5);
+        assertThat(registry.get("kixi.rate_limit.rejected").tag("limiter", "write_address").counter().count()).isZero();
+    }
+
+    private static MockServerWebExchange post(String address) {
+        return exchange(MockServerHttpRequest.post("/api/v1/courses"), address);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String address) {
+        return MockServerWebExchange.from(request.remoteAddress(new InetSocketAddress(address, 40000)));
+    }
+
+    private static AuthenticatedAccount account() {
+        return new AuthenticatedAccount(1L, "ana", Set.of(), "jti", 1L, Instant.now().plusSeconds(900));
+    }
+}
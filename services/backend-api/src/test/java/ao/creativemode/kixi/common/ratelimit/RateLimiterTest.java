@@ -0,0 +1,81 @@
+package ao.creativemode.kixi.common.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void allowsABurstUpToTheLimitThenRejects() {
+        RateLimiter limiter = new RateLimiter("test", 5, Duration.ofHours(1), 100, registry);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+        Duration retryAfter = limiter.tryAcquire("client");
+
+        // The next token is one emission interval (period / limit) away
+        assertThat(retryAfter).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(12));
+        assertThat(retryAfter).isGreaterThan(Duration.ofMinutes(11));
+        assertThat(registry.get("kixi.rate_limit.rejected").tag("limiter", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        RateLimiter limiter = new RateLimiter("test", 1, Duration.ofHours(1), 100, registry);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void rejectedCallsDoNotConsumeTokens() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("test", 2, Duration.ofMillis(200), 100, registry);
+        limiter.tryAcquire("client");
+        limiter.tryAcquire("client");
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("client");
+        }
+
+        Thread.sleep(150);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimit() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("test", 100, Duration.ofHours(1), 100, registry);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("client").isZero()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed).hasValue(100);
+    }
+
+    @Test
+    void rejectsANonPositiveLimit() {
+        assertThatThrownBy(() -> new RateLimiter("test", 0, Duration.ofMinutes(1), 100, registry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
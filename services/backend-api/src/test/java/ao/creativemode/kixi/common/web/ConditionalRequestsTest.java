@@ -0,0 +1,74 @@
+package ao.creativemode.kixi.common.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalRequestsTest {
+
+    private static final CollectionStamp STAMP = new CollectionStamp(3, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000));
+
+    @Test
+    void collectionTagChangesWithCountAndTime() {
+        String tag = ETags.forCollection(STAMP);
+
+        assertThat(tag).startsWith("W/\"");
+        assertThat(ETags.forCollection(new CollectionStamp(3, STAMP.lastModified()))).isEqualTo(tag);
+        assertThat(ETags.forCollection(new CollectionStamp(2, STAMP.lastModified()))).isNotEqualTo(tag);
+        assertThat(ETags.forCollection(new CollectionStamp(3, STAMP.lastModified().plusNanos(1_000)))).isNotEqualTo(tag);
+        assertThat(ETags.forCollection(new CollectionStamp(0, null))).isEqualTo("W/\"0-0\"");
+    }
+
+    @Test
+    void matchingTagAnswersNotModifiedWithoutBuildingTheResponse() {
+        String tag = ETags.forCollection(STAMP);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/courses").header(HttpHeaders.IF_NONE_MATCH, tag));
+        AtomicBoolean built = new AtomicBoolean();
+
+        ResponseEntity<String> response = ConditionalRequests.unlessNotModified(exchange, Mono.just(tag), () -> {
+            built.set(true);
+            return Mono.just(ResponseEntity.ok("body"));
+        }).block();
+
+        assertThat(built).isFalse();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(tag);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void staleTagGetsTheFullResponseWithTheCurrentTag() {
+        String tag = ETags.forCollection(STAMP);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/courses").header(HttpHeaders.IF_NONE_MATCH, ETags.weak("stale")));
+
+        ResponseEntity<String> response = ConditionalRequests.unlessNotModified(exchange, Mono.just(tag),
+                () -> Mono.just(ResponseEntity.ok().header("X-Next-Cursor", "abc").body("body"))).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(tag);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isEqualTo("abc");
+        assertThat(response.getBody()).isEqualTo("body");
+    }
+
+    @Test
+    void requestWithoutValidatorGetsTheFullResponse() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+
+        ResponseEntity<String> response = ConditionalRequests.unlessNotModified(exchange,
+                Mono.just(ETags.forCollection(STAMP)), () -> Mono.just(ResponseEntity.ok("body"))).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("body");
+    }
+}
@@ -0,0 +1,60 @@
+package ao.creativemode.kixi.common.web;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagsTest {
+
+    private static final LocalDateTime HEARTBEAT = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_789);
+
+    @Test
+    void versionTagsAreStrong() {
+        assertThat(ETags.forVersion(7L)).isEqualTo("\"7\"");
+        assertThat(ETags.forVersion(7L, HEARTBEAT)).isEqualTo("\"7." + ETags.epochMicros(HEARTBEAT) + "\"");
+    }
+
+    @Test
+    void heartbeatChangesTheTagButNotTheVersion() {
+        String before = ETags.forVersion(7L, HEARTBEAT);
+        String after = ETags.forVersion(7L, HEARTBEAT.plusSeconds(1));
+
+        assertThat(after).isNotEqualTo(before);
+        assertThat(ETags.expectedVersion(before)).isEqualTo(7L);
+        assertThat(ETags.expectedVersion(after)).isEqualTo(7L);
+    }
+
+    @Test
+    void epochMicrosTruncatesToPostgresPrecision() {
+        assertThat(ETags.epochMicros(HEARTBEAT)).isEqualTo(ETags.epochMicros(HEARTBEAT.withNano(123_456_000)));
+        assertThat(ETags.epochMicros(null)).isZero();
+    }
+
+    @Test
+    void ifMatchNamesAVersion() {
+        assertThat(ETags.expectedVersion(ETags.forVersion(42L))).isEqualTo(42L);
+        assertThat(ETags.expectedVersion(" \"42\" ")).isEqualTo(42L);
+    }
+
+    @Test
+    void absentOrWildcardIfMatchIsUnconditional() {
+        assertThat(ETags.expectedVersion(null)).isNull();
+        assertThat(ETags.expectedVersion(" ")).isNull();
+        assertThat(ETags.expectedVersion("*")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"42", "W/\"42\"", "\"\"", "\"abc\"", "\"4-2\""})
+    void foreignIfMatchFailsThePrecondition(String ifMatch) {
+        assertThatThrownBy(() -> ETags.expectedVersion(ifMatch))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+    }
+}
@@ -0,0 +1,128 @@
+package ao.creativemode.kixi.common.web;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import ao.creativemode.kixi.common.r2dbc.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryBudgetWebFilterTest {
+
+    private final QueryBudgetWebFilter filter = new QueryBudgetWebFilter(2, QueryBudgetWebFilter.Mode.FAIL,
+            new ObjectMapper());
+
+    @Test
+    void noContentResponseOverBudgetIsAnsweredWith500() {
+        MockServerWebExchange exchange = exchange();
+        WebFilterChain chain = ex -> queries(3).then(Mono.defer(() -> {
+            ex.getResponse().setStatusCode(HttpStatus.NO_CONTENT);
+            return ex.getResponse().setComplete();
+        }));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("Query Budget Exceeded");
+    }
+
+    @Test
+    void handlerThatNeverWritesIsCheckedWhenItCompletes() {
+        MockServerWebExchange exchange = exchange();
+        WebFilterChain chain = ex -> queries(3).then(Mono.fromRunnable(
+                () -> ex.getResponse().setStatusCode(HttpStatus.NO_CONTENT)));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void noContentResponseWithinBudgetPassesThrough() {
+        MockServerWebExchange exchange = exchange();
+        WebFilterChain chain = ex -> queries(2).then(Mono.defer(() -> {
+            ex.getResponse().setStatusCode(HttpStatus.NO_CONTENT);
+            return ex.getResponse().setComplete();
+        }));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    void bodyOverBudgetIsReplacedBeforeItIsCommitted() {
+        MockServerWebExchange exchange = exchange();
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(queries(3).then(Mono.fromSupplier(() -> buffer("{}"))));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("issued 3 SQL statements, budget is 2");
+    }
+
+    @Test
+    void streamedBodyIsWrittenAsItIsProduced() {
+        MockServerWebExchange exchange = exchange();
+        List<DataBuffer> written = new CopyOnWriteArrayList<>();
+        exchange.getResponse().setWriteHandler(body -> Flux.from(body).doOnNext(written::add).then());
+        Sinks.Many<DataBuffer> rows = Sinks.many().unicast().onBackpressureBuffer();
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(rows.asFlux());
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .then(() -> rows.tryEmitNext(buffer("{\"id\":1}\n")))
+                .then(() -> assertThat(written).hasSize(1))
+                .then(rows::tryEmitComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamThatGoesOverBudgetAfterCommitIsAborted() {
+        MockServerWebExchange exchange = exchange();
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(Flux.concat(
+                Mono.fromSupplier(() -> buffer("{\"id\":1}\n")),
+                queries(3).then(Mono.fromSupplier(() -> buffer("{\"id\":2}\n")))));
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyError(ApiException.class);
+        assertThat(exchange.getResponse().isCommitted()).isTrue();
+        assertThat(exchange.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/courses"));
+    }
+
+    /**
+     * Stands in for statements counted by the R2DBC proxy listener.
+     */
+    private static Mono<Void> queries(int count) {
+        return Mono.deferContextual(context -> {
+            QueryCounter counter = context.get(QueryCounter.CONTEXT_KEY);
+            for (int i = 0; i < count; i++) {
+                counter.increment();
+            }
+            return Mono.empty();
+        });
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
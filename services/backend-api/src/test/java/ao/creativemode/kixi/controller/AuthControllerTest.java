@@ -0,0 +1,174 @@
+package ao.creativemode.kixi.controller;
+
+import ao.creativemode.kixi.dto.auth.TokenResponse;
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureWebTestClient
+@TestPropertySource(properties = "kixi.security.auth.mode=enforced")
+class AuthControllerTest extends PostgresIntegrationTest {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void protectedRoutesRejectAnonymousCalls() {
+        client.get().uri("/api/v1/courses")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        client.get().uri("/api/v1/courses")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+    }
+
+    @Test
+    void loginIssuesTokensThatOpenProtectedRoutes() {
+        Long accountId = account("login-ok", true);
+
+        TokenResponse tokens = client.post().uri("/api/v1/auth/login")
+                .bodyValue(Map.of("username", "login-ok", "password", PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.noStore())
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(tokens.tokenType()).isEqualTo("Bearer");
+        assertThat(tokens.expiresIn()).isPositive();
+        assertThat(sessionsOf(accountId)).isEqualTo(1);
+        client.get().uri("/api/v1/courses")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void badCredentialsAreRejectedAlike() {
+        account("login-bad", true);
+
+        login("login-bad", "wrong password").expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.detail").isEqualTo("Invalid username or password");
+        login("nobody-by-this-name", PASSWORD).expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.detail").isEqualTo("Invalid username or password");
+    }
+
+    @Test
+    void inactiveAccountCannotLogIn() {
+        account("login-inactive", false);
+
+        login("login-inactive", PASSWORD).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void blankCredentialsAreABadRequest() {
+        login("", "").expectStatus().isBadRequest();
+    }
+
+    @Test
+    void refreshRotatesTheRefreshToken() {
+        account("refresh-ok", true);
+        TokenResponse first = tokensFor("refresh-ok");
+
+        TokenResponse second = refresh(first.refreshToken())
+                .expectStatus().isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(second.refreshToken()).isNotEqualTo(first.refreshToken());
+        refresh(first.refreshToken()).expectStatus().isUnauthorized();
+        refresh(first.accessToken()).expectStatus().isUnauthorized();
+        refresh(second.refreshToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void logoutRevokesBothTokensAndEndsTheSession() {
+        Long accountId = account("logout-ok", true);
+        TokenResponse tokens = tokensFor("logout-ok");
+
+        client.post().uri("/api/v1/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+                .bodyValue(Map.of("refreshToken", tokens.refreshToken()))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        client.get().uri("/api/v1/courses")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+                .exchange()
+                .expectStatus().isUnauthorized();
+        refresh(tokens.refreshToken()).expectStatus().isUnauthorized();
+        assertThat(sessionsOf(accountId)).isZero();
+    }
+
+    @Test
+    void logoutRequiresABearerToken() {
+        client.post().uri("/api/v1/auth/logout")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private WebTestClient.ResponseSpec login(String username, String password) {
+        return client.post().uri("/api/v1/auth/login")
+                .bodyValue(Map.of("username", username, "password", password))
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec refresh(String refreshToken) {
+        return client.post().uri("/api/v1/auth/refresh")
+                .bodyValue(Map.of("refreshToken", refreshToken))
+                .exchange();
+    }
+
+    private TokenResponse tokensFor(String username) {
+        return login(username, PASSWORD)
+                .expectStatus().isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Long account(String username, boolean active) {
+        return databaseClient.sql("""
+                        INSERT INTO accounts (username, email, password_hash, active)
+                        VALUES (:username, :email, :passwordHash, :active)
+                        RETURNING id
+                        """)
+                .bind("username", username)
+                .bind("email", username + "@example.com")
+                .bind("passwordHash", new BCryptPasswordEncoder(4).encode(PASSWORD))
+                .bind("active", active)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private long sessionsOf(Long accountId) {
+        return databaseClient.sql("SELECT count(*) AS live FROM sessions WHERE account_id = :id AND deleted_at IS NULL")
+                .bind("id", accountId)
+                .map((row, metadata) -> row.get("live", Long.class))
+                .one()
+                .block();
+    }
+}
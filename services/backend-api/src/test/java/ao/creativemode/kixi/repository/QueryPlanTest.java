@@ -0,0 +1,246 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.security.TokenDigest;
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hot queries are planned against the indexes created for them.
+ * Each check calls the repository method, captures the SQL and bind values the
+ * driver was actually sent (derived queries included) and EXPLAINs that same
+ * statement with the same values. The planner runs with its default settings
+ * over a seeded, analyzed schema, so a sequential scan here is one Postgres
+ * would also choose in production.
+ * <p>
+ * Accounts have no derived email lookup; email uniqueness is enforced by
+ * {@code uc_accounts_email} alone.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest extends PostgresIntegrationTest {
+
+    private static final Queue<QueryInfo> CAPTURED = new ConcurrentLinkedQueue<>();
+
+    @TestConfiguration
+    static class CaptureQueries {
+
+        @Bean
+        ConnectionFactoryDecorator captureQueriesDecorator() {
+            ProxyExecutionListener listener = new ProxyExecutionListener() {
+                @Override
+                public void beforeQuery(QueryExecutionInfo execInfo) {
+                    CAPTURED.addAll(execInfo.getQueries());
+                }
+            };
+            return connectionFactory -> ProxyConnectionFactory.builder(connectionFactory)
+                    .listener(listener)
+                    .build();
+        }
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private AccountRepository accounts;
+    @Autowired
+    private AccountRoleRepository accountRoles;
+    @Autowired
+    private CourseRepository courses;
+    @Autowired
+    private RoleRepository roles;
+    @Autowired
+    private SchoolYearRepository schoolYears;
+    @Autowired
+    private SessionRepository sessions;
+    @Autowired
+    private TermRepository terms;
+    @Autowired
+    private UserRepository users;
+
+    @BeforeAll
+    void seed() {
+        // Sizes are small next to production but large enough that no table fits
+        // in a page or two, where a sequential scan is always the cheapest plan.
+        List.of(
+                """
+                INSERT INTO accounts (username, email, password_hash, deleted_at)
+                SELECT 'user-' || g, md5(g::text) || '@example.com', 'x',
+                       CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 20000) g
+                """,
+                """
+                INSERT INTO roles (name, deleted_at)
+                SELECT 'role-' || g, CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 2000) g
+                """,
+                """
+                INSERT INTO courses (code, name, deleted_at)
+                SELECT 'C' || g, 'Course ' || md5(g::text), CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 5000) g
+                """,
+                """
+                INSERT INTO school_years (start_year, end_year, deleted_at)
+                SELECT g, g + 1, CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 5000) g
+                """,
+                """
+                INSERT INTO terms (number, name, deleted_at)
+                SELECT g % 3 + 1, 'Term ' || g, CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 5000) g
+                """,
+                """
+                INSERT INTO users (account_id, first_name, last_name, deleted_at)
+                SELECT g, md5(g::text), md5((-g)::text), CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 20000) g
+                """,
+                """
+                INSERT INTO account_roles (account_id, role_id, deleted_at)
+                SELECT g, r, CASE WHEN g % 50 = 0 THEN now() END
+                FROM generate_series(1, 20000) g,
+                     LATERAL (VALUES (1 + g % 2000), (1 + (g + 1) % 2000)) AS v(r)
+                """,
+                // The reaper keeps expired and soft-deleted sessions to a small tail
+                """
+                INSERT INTO sessions (account_id, token, token_hash, ip_address, expires_at, deleted_at)
+                SELECT 1 + g % 20000, 't' || g, sha256(convert_to('t' || g, 'UTF8')), '127.0.0.1',
+                       CASE WHEN g % 500 = 250 THEN now() - interval '1 hour' ELSE now() + interval '1 day' END,
+                       CASE WHEN g % 500 = 0 THEN now() - interval '60 days' END
+                FROM generate_series(1, 50000) g
+                """,
+                "ANALYZE")
+                .forEach(sql -> databaseClient.sql(sql).then().block());
+    }
+
+    @Test
+    void accountLookupsUseTheirIndexes() {
+        assertUsesIndex(() -> accounts.findByIdAndDeletedAtIsNull(42L), "accounts_pkey", "idx_accounts_active");
+        assertUsesIndex(() -> accounts.findAllByIdInAndDeletedAtIsNull(new Long[]{1L, 2L, 3L}),
+                "accounts_pkey", "idx_accounts_active");
+        assertUsesIndex(() -> accounts.findByUsernameAndDeletedAtIsNull("user-42"), "uc_accounts_username");
+        assertUsesIndex(() -> accounts.findByUsernameAndIdNotAndDeletedAtIsNull("user-42", 1L), "uc_accounts_username");
+    }
+
+    @Test
+    void catalogLookupsUseTheirIndexes() {
+        assertUsesIndex(() -> courses.findByIdAndDeletedAtIsNull(42L), "courses_pkey", "idx_courses_active");
+        assertUsesIndex(() -> courses.findByCodeAndDeletedAtIsNull("C42"), "uc_courses_code");
+        assertUsesIndex(() -> courses.findByCodeAndIdNotAndDeletedAtIsNull("C42", 1L), "uc_courses_code");
+        assertUsesIndex(() -> roles.findByIdAndDeletedAtIsNull(42L), "roles_pkey", "idx_roles_active");
+        assertUsesIndex(() -> roles.findByNameAndDeletedAtIsNull("role-42"), "uc_roles_name");
+        assertUsesIndex(() -> roles.findByNameAndIdNotAndDeletedAtIsNull("role-42", 1L), "uc_roles_name");
+        assertUsesIndex(() -> schoolYears.findByIdAndDeletedAtIsNull(42L), "school_years_pkey", "idx_school_years_active");
+        assertUsesIndex(() -> schoolYears.findByStartYearAndEndYearAndIdNot(42, 43, 1L), "uk_school_years_start_end");
+        assertUsesIndex(() -> terms.findByIdAndDeletedAtIsNull(42L), "terms_pkey", "idx_terms_active");
+    }
+
+    @Test
+    void userLookupsUseTheirIndexes() {
+        assertUsesIndex(() -> users.findByIdAndDeletedAtIsNull(42L), "users_pkey", "idx_users_active");
+        assertUsesIndex(() -> users.findByAccountIdAndDeletedAtIsNull(42L), "idx_users_account_id_active");
+        assertUsesIndex(() -> users.countByAccountIdAndDeletedAtIsNull(42L), "idx_users_account_id_active");
+        assertUsesIndex(() -> users.findActivePage(100, 20), "idx_users_active", "users_pkey");
+    }
+
+    @Test
+    void accountRoleLookupsUseTheirIndexes() {
+        assertUsesIndex(() -> accountRoles.findByAccountIdAndDeletedAtIsNull(42L),
+                "idx_account_roles_account_id_active", "uq_account_role");
+        assertUsesIndex(() -> accountRoles.findByRoleIdAndDeletedAtIsNull(42L), "idx_account_roles_role_id_active");
+        assertUsesIndex(() -> accountRoles.findByAccountIdAndRoleIdAndDeletedAtIsNull(42L, 43L),
+                "uq_account_role", "idx_account_roles_account_id_active");
+        assertUsesIndex(() -> accountRoles.findFirstByAccountIdAndRoleId(42L, 43L), "uq_account_role");
+        assertUsesIndex(() -> accountRoles.existsByAccountIdAndRoleIdAndDeletedAtIsNull(42L, 43L),
+                "uq_account_role", "idx_account_roles_account_id_active");
+    }
+
+    @Test
+    void sessionLookupsUseTheirIndexes() {
+        assertUsesIndex(() -> sessions.findByIdAndDeletedAtIsNull(42L), "sessions_pkey", "idx_sessions_active");
+        assertUsesIndex(() -> sessions.findByAccountIdAndDeletedAtIsNull(42L), "idx_sessions_account_id_active");
+        assertUsesIndex(() -> sessions.countByAccountIdAndDeletedAtIsNull(42L), "idx_sessions_account_id_active");
+        assertUsesIndex(() -> sessions.findActiveByTokenHash(TokenDigest.sha256("t42")), "uq_sessions_token_hash");
+    }
+
+    @Test
+    void reaperBatchesUseTheirIndexes() {
+        assertUsesIndex(() -> sessions.softDeleteExpired(100), "idx_sessions_expires_at_active");
+        assertUsesIndex(() -> sessions.purgeDeletedOlderThan(Duration.ofDays(30).toSeconds(), 100),
+                "idx_sessions_deleted_at");
+    }
+
+    @Test
+    void searchesUseTheTrigramIndexes() {
+        String term = "c4ca4238a0b9"; // prefix of md5('1'), seeded into one row of each table
+        assertUsesIndex(() -> courses.search(term, "%" + term + "%", 20), "idx_courses_code_name_trgm");
+        assertUsesIndex(() -> accounts.search(term, "%" + term + "%", 20), "idx_accounts_username_email_trgm");
+        assertUsesIndex(() -> users.search(term, "%" + term + "%", 20), "idx_users_name_trgm");
+    }
+
+    private void assertUsesIndex(Supplier<Publisher<?>> call, String... indexes) {
+        CAPTURED.clear();
+        Flux.from(call.get()).then().block();
+        QueryInfo query = CAPTURED.peek();
+        assertThat(query).as("no statement was sent").isNotNull();
+
+        String plan = explain(query);
+
+        assertThat(plan).as(query.getQuery() + "\n" + plan).containsAnyOf(indexes).doesNotContain("Seq Scan");
+    }
+
+    private String explain(QueryInfo query) {
+        return databaseClient.inConnection(connection -> {
+                    Statement statement = connection.createStatement("EXPLAIN " + query.getQuery());
+                    for (Bindings bindings : query.getBindingsList()) {
+                        bindings.getIndexBindings().forEach(binding -> bind(statement, binding));
+                        bindings.getNamedBindings().forEach(binding -> bind(statement, binding));
+                    }
+                    return Flux.from(statement.execute())
+                            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+                            .collect(Collectors.joining("\n"));
+                })
+                .block();
+    }
+
+    private static void bind(Statement statement, Binding binding) {
+        BoundValue value = binding.getBoundValue();
+        if (binding.getKey() instanceof Integer index) {
+            if (value.isNull()) {
+                statement.bindNull(index, value.getNullType());
+            } else {
+                statement.bind(index, value.getValue());
+            }
+        } else {
+            String name = (String) binding.getKey();
+            if (value.isNull()) {
+                statement.bindNull(name, value.getNullType());
+            } else {
+                statement.bind(name, value.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ao.creativemode.kixi.repository;
+
+import ao.creativemode.kixi.security.TokenDigest;
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The single-statement login and refresh writes used by {@code AuthService},
+ * and the reaper's purge.
+ */
+class SessionRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private SessionRepository sessions;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void loginStampsLastLoginAndOpensTheSession() {
+        Long accountId = insertAccount("login-stamps");
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Long sessionId = login(accountId, now);
+
+        assertThat(sessionId).isNotNull();
+        assertThat(queryLong("SELECT account_id FROM sessions WHERE id = " + sessionId)).isEqualTo(accountId);
+        assertThat(databaseClient.sql("SELECT last_login FROM accounts WHERE id = :id")
+                .bind("id", accountId)
+                .map((row, metadata) -> row.get("last_login", LocalDateTime.class))
+                .one()
+                .block()).isEqualTo(now);
+    }
+
+    @Test
+    void loginOpensNothingForAnAccountDeactivatedAfterItWasRead() {
+        Long accountId = insertAccount("login-deactivated");
+        execute("UPDATE accounts SET active = false WHERE id = " + accountId);
+
+        assertThat(login(accountId, LocalDateTime.now())).isNull();
+        assertThat(sessionCount(accountId)).isZero();
+        assertThat(queryLong("SELECT count(*) FROM accounts WHERE id = " + accountId + " AND last_login IS NOT NULL"))
+                .isZero();
+    }
+
+    @Test
+    void loginOpensNothingForAnAccountDeletedAfterItWasRead() {
+        Long accountId = insertAccount("login-deleted");
+        execute("UPDATE accounts SET deleted_at = now() WHERE id = " + accountId);
+
+        assertThat(login(accountId, LocalDateTime.now())).isNull();
+        assertThat(sessionCount(accountId)).isZero();
+    }
+
+    @Test
+    void touchMarksALiveSessionUsed() {
+        Long sessionId = login(insertAccount("touch-live"), LocalDateTime.now());
+        execute("UPDATE sessions SET last_used = now() - interval '1 hour' WHERE id = " + sessionId);
+
+        assertThat(sessions.touchIfActive(sessionId).block()).isEqualTo(sessionId);
+        assertThat(queryLong("SELECT count(*) FROM sessions WHERE id = " + sessionId
+                + " AND last_used > now() - interval '1 minute'")).isOne();
+    }
+
+    @Test
+    void touchSkipsAnExpiredSession() {
+        Long sessionId = login(insertAccount("touch-expired"), LocalDateTime.now());
+        execute("UPDATE sessions SET expires_at = now() - interval '1 second' WHERE id = " + sessionId);
+
+        assertThat(sessions.touchIfActive(sessionId).block()).isNull();
+    }
+
+    @Test
+    void touchSkipsASoftDeletedSession() {
+        Long sessionId = login(insertAccount("touch-deleted"), LocalDateTime.now());
+        execute("UPDATE sessions SET deleted_at = now() WHERE id = " + sessionId);
+
+        assertThat(sessions.touchIfActive(sessionId).block()).isNull();
+    }
+
+    @Test
+    void purgeRemovesOnlySessionsDeletedLongerThanTheRetention() {
+        Long accountId = insertAccount("purge-retention");
+        Long old = login(accountId, LocalDateTime.now());
+        Long recent = login(accountId, LocalDateTime.now());
+        execute("UPDATE sessions SET deleted_at = now() - interval '2 days' WHERE id = " + old);
+        execute("UPDATE sessions SET deleted_at = now() - interval '1 hour' WHERE id = " + recent);
+
+        sessions.purgeDeletedOlderThan(Duration.ofDays(1).toSeconds(), 1000).block();
+
+        assertThat(queryLong("SELECT count(*) FROM sessions WHERE id = " + old)).isZero();
+        assertThat(queryLong("SELECT count(*) FROM sessions WHERE id = " + recent)).isOne();
+    }
+
+    private Long login(Long accountId, LocalDateTime now) {
+        String token = UUID.randomUUID().toString();
+        return sessions.insertForLogin(accountId, token, TokenDigest.sha256(token), "127.0.0.1",
+                now.plusDays(1), now).block();
+    }
+
+    private Long insertAccount(String username) {
+        return databaseClient.sql("""
+                        INSERT INTO accounts (username, email, password_hash)
+                        VALUES (:username, :username || '@example.com', 'x')
+                        RETURNING id
+                        """)
+                .bind("username", username)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private long sessionCount(Long accountId) {
+        return queryLong("SELECT count(*) FROM sessions WHERE account_id = " + accountId);
+    }
+
+    private long queryLong(String sql) {
+        return databaseClient.sql(sql)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
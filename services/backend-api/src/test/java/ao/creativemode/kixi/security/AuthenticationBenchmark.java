@@ -0,0 +1,168 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.model.Session;
+import ao.creativemode.kixi.service.SessionTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request: verifying the JWT in memory against
+ * resolving an opaque session token, from the session table and from the
+ * in-process session cache. The session table lookup runs the same statement as
+ * {@code SessionRepository.findActiveByTokenHash} against a migrated Postgres
+ * in a Testcontainers container, so those two need Docker; the JWT ones do not.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main AuthenticationBenchmark"
+ * </pre>
+ * Add {@code .jwt} to the pattern to run only the JWT benchmarks:
+ * <pre>
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main AuthenticationBenchmark.jwt"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final String SECRET = "a2l4aS10ZXN0LXNpZ25pbmcta2V5LTAxMjM0NTY3ODk=";
+
+    @State(Scope.Benchmark)
+    public static class Jwt {
+
+        JwtTokens tokens;
+        String accessToken;
+        String refreshToken;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            tokens = new JwtTokens(new SimpleMeterRegistry(), SECRET, "kixi-backend-api",
+                    Duration.ofMinutes(15), Duration.ofDays(7), Duration.ofSeconds(30), 10_000);
+            TokenPair pair = tokens.issue(1L, "benchmark", List.of("ADMIN"), 1L);
+            accessToken = pair.accessToken();
+            refreshToken = pair.refreshToken();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sessions {
+
+        PostgreSQLContainer<?> postgres;
+        DatabaseClient databaseClient;
+        SessionTokenCache cache;
+        byte[] tokenHash;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            Flyway.configure()
+                    .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                    .load()
+                    .migrate();
+            ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:pool:postgresql://"
+                    + postgres.getUsername() + ":" + postgres.getPassword() + "@" + postgres.getHost() + ":"
+                    + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+            databaseClient = DatabaseClient.create(connectionFactory);
+
+            Long accountId = databaseClient.sql("""
+                            INSERT INTO accounts (username, email, password_hash)
+                            VALUES ('benchmark', 'benchmark@example.com', 'x')
+                            RETURNING id
+                            """)
+                    .map((row, metadata) -> row.get("id", Long.class))
+                    .one()
+                    .block();
+            String token = UUID.randomUUID().toString();
+            tokenHash = TokenDigest.sha256(token);
+            databaseClient.sql("""
+                            INSERT INTO sessions (account_id, token, token_hash, ip_address, expires_at)
+                            VALUES (:accountId, :token, :tokenHash, '127.0.0.1', now() + interval '1 day')
+                            """)
+                    .bind("accountId", accountId)
+                    .bind("token", token)
+                    .bind("tokenHash", tokenHash)
+                    .then()
+                    .block();
+
+            cache = new SessionTokenCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5));
+            cache.get(tokenHash, () -> findActiveByTokenHash(tokenHash)).block();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            postgres.stop();
+        }
+
+        Mono<Session> findActiveByTokenHash(byte[] tokenHash) {
+            return databaseClient.sql("SELECT * FROM sessions WHERE token_hash = :tokenHash AND deleted_at IS NULL AND expires_at > now()")
+                    .bind("tokenHash", tokenHash)
+                    .map((row, metadata) -> Session.builder()
+                            .id(row.get("id", Long.class))
+                            .accountId(row.get("account_id", Long.class))
+                            .token(row.get("token", String.class))
+                            .expiresAt(row.get("expires_at", LocalDateTime.class))
+                            .build())
+                    .one();
+        }
+    }
+
+    /**
+     * Full signature check and claim parsing; refresh tokens are never cached.
+     */
+    @Benchmark
+    public AuthenticatedAccount jwtVerify(Jwt jwt) {
+        return jwt.tokens.verifyRefresh(jwt.refreshToken);
+    }
+
+    /**
+     * A client repeating its access token, served from the verified-token cache.
+     */
+    @Benchmark
+    public AuthenticatedAccount jwtVerifyCached(Jwt jwt) {
+        return jwt.tokens.verifyAccess(jwt.accessToken);
+    }
+
+    /**
+     * One indexed query on the session table per request.
+     */
+    @Benchmark
+    public Session sessionTableLookup(Sessions sessions) {
+        return sessions.findActiveByTokenHash(sessions.tokenHash).block();
+    }
+
+    /**
+     * A hit in the in-process session cache, as after the first request of a session.
+     */
+    @Benchmark
+    public Session sessionCacheLookup(Sessions sessions) {
+        return sessions.cache.get(sessions.tokenHash, () -> sessions.findActiveByTokenHash(sessions.tokenHash)).block();
+    }
+}
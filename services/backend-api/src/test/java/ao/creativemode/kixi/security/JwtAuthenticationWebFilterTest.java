@@ -0,0 +1,128 @@
+package ao.creativemode.kixi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationWebFilterTest {
+
+    private final JwtTokens tokens = JwtTokensTest.tokens(JwtTokensTest.SECRET, "kixi-backend-api", Duration.ofMinutes(15));
+    private final TokenRevocationList revocations = mock(TokenRevocationList.class);
+    private final AtomicReference<Optional<AuthenticatedAccount>> seen = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> AuthenticatedAccount.current()
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .doOnNext(seen::set)
+            .then();
+
+    @BeforeEach
+    void notRevoked() {
+        when(revocations.isRevoked(anyString())).thenReturn(Mono.just(false));
+    }
+
+    @Test
+    void validTokenPutsTheCallerInTheContext() {
+        String token = tokens.issue(7L, "ana", List.of("ADMIN"), 42L).accessToken();
+
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.ENFORCED, get("/api/v1/courses", "Bearer " + token));
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+        assertThat(seen.get()).hasValueSatisfying(caller -> {
+            assertThat(caller.accountId()).isEqualTo(7L);
+            assertThat(caller.hasRole("ADMIN")).isTrue();
+        });
+    }
+
+    @Test
+    void missingTokenPassesAnonymouslyWhenPermissive() {
+        run(JwtAuthenticationWebFilter.Mode.PERMISSIVE, get("/api/v1/courses", null));
+
+        assertThat(seen.get()).isEmpty();
+    }
+
+    @Test
+    void missingTokenIsRejectedWhenEnforced() {
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.ENFORCED, get("/api/v1/courses", null));
+
+        assertUnauthorized(exchange, "Bearer");
+    }
+
+    @Test
+    void nonBearerAuthorizationCountsAsMissing() {
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.ENFORCED, get("/api/v1/courses", "Basic YW5hOnNlY3JldA=="));
+
+        assertUnauthorized(exchange, "Bearer");
+    }
+
+    @Test
+    void malformedTokenIsRejectedEvenWhenPermissive() {
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.PERMISSIVE, get("/api/v1/courses", "Bearer not-a-jwt"));
+
+        assertUnauthorized(exchange, "Bearer error=\"invalid_token\"");
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsBearer() {
+        String refresh = tokens.issue(7L, "ana", List.of(), 42L).refreshToken();
+
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.PERMISSIVE, get("/api/v1/courses", "Bearer " + refresh));
+
+        assertUnauthorized(exchange, "Bearer error=\"invalid_token\"");
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        String token = tokens.issue(7L, "ana", List.of(), 42L).accessToken();
+        when(revocations.isRevoked(tokens.verifyAccess(token).tokenId())).thenReturn(Mono.just(true));
+
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.ENFORCED, get("/api/v1/courses", "Bearer " + token));
+
+        assertUnauthorized(exchange, "Bearer error=\"invalid_token\"");
+    }
+
+    @Test
+    void publicPathsSkipAuthentication() {
+        MockServerWebExchange exchange = run(JwtAuthenticationWebFilter.Mode.ENFORCED, get("/api/v1/auth/login", "Bearer stale"));
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+        assertThat(seen.get()).isEmpty();
+    }
+
+    private MockServerWebExchange run(JwtAuthenticationWebFilter.Mode mode, MockServerWebExchange exchange) {
+        JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(tokens, revocations, mode,
+                List.of("/api/v1/auth/**", "/actuator/**"), new ObjectMapper());
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange get(String path, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private void assertUnauthorized(MockServerWebExchange exchange, String challenge) {
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE)).isEqualTo(challenge);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("\"status\":401");
+        assertThat(seen.get()).isNull();
+    }
+}
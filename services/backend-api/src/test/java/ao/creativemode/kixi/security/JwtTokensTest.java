@@ -0,0 +1,137 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokensTest {
+
+    static final String SECRET = Base64.getEncoder().encodeToString("kixi-test-signing-key-0123456789".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString("another-signing-key-000000000000".getBytes());
+
+    private final JwtTokens tokens = tokens(SECRET, "kixi-backend-api", Duration.ofMinutes(15));
+
+    @Test
+    void accessTokenRoundTrips() {
+        TokenPair pair = tokens.issue(7L, "ana", List.of("ADMIN", "TEACHER"), 42L);
+
+        AuthenticatedAccount account = tokens.verifyAccess(pair.accessToken());
+
+        assertThat(account.accountId()).isEqualTo(7L);
+        assertThat(account.username()).isEqualTo("ana");
+        assertThat(account.roles()).containsExactlyInAnyOrder("ADMIN", "TEACHER");
+        assertThat(account.sessionId()).isEqualTo(42L);
+        assertThat(account.tokenId()).isNotBlank();
+        assertThat(account.expiresAt()).isAfter(Instant.now().plus(Duration.ofMinutes(14)));
+        assertThat(tokens.verifyAccess(pair.accessToken())).isEqualTo(account);
+    }
+
+    @Test
+    void refreshTokenRoundTripsWithoutRoles() {
+        TokenPair pair = tokens.issue(7L, "ana", List.of("ADMIN"), 42L);
+
+        AuthenticatedAccount caller = tokens.verifyRefresh(pair.refreshToken());
+
+        assertThat(caller.accountId()).isEqualTo(7L);
+        assertThat(caller.sessionId()).isEqualTo(42L);
+        assertThat(caller.roles()).isEmpty();
+        assertThat(caller.tokenId()).isNotEqualTo(tokens.verifyAccess(pair.accessToken()).tokenId());
+    }
+
+    @Test
+    void tokenTypesAreNotInterchangeable() {
+        TokenPair pair = tokens.issue(7L, "ana", List.of(), 42L);
+
+        assertUnauthorized(() -> tokens.verifyAccess(pair.refreshToken()), "Invalid token");
+        assertUnauthorized(() -> tokens.verifyRefresh(pair.accessToken()), "Invalid token");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtTokens expiring = tokens(SECRET, "kixi-backend-api", Duration.ofMinutes(-5));
+        TokenPair pair = expiring.issue(7L, "ana", List.of(), 42L);
+
+        assertUnauthorized(() -> expiring.verifyAccess(pair.accessToken()), "Token has expired");
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        String token = tokens.issue(7L, "ana", List.of(), 42L).accessToken();
+        // Not the last character: its low bits are base64 padding and may not change the signature
+        int at = token.lastIndexOf('.') + 5;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertUnauthorized(() -> tokens.verifyAccess(tampered), "Invalid token");
+    }
+
+    @Test
+    void tamperedClaimsAreRejected() {
+        String[] parts = tokens.issue(7L, "ana", List.of(), 42L).accessToken().split("\\.");
+        String forgedClaims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(parts[1])).replace("\"sub\":\"7\"", "\"sub\":\"1\"").getBytes());
+
+        assertUnauthorized(() -> tokens.verifyAccess(parts[0] + "." + forgedClaims + "." + parts[2]), "Invalid token");
+    }
+
+    @Test
+    void tokenFromAnotherKeyOrIssuerIsRejected() {
+        String foreignKey = tokens(OTHER_SECRET, "kixi-backend-api", Duration.ofMinutes(15))
+                .issue(7L, "ana", List.of(), 42L).accessToken();
+        String foreignIssuer = tokens(SECRET, "someone-else", Duration.ofMinutes(15))
+                .issue(7L, "ana", List.of(), 42L).accessToken();
+
+        assertUnauthorized(() -> tokens.verifyAccess(foreignKey), "Invalid token");
+        assertUnauthorized(() -> tokens.verifyAccess(foreignIssuer), "Invalid token");
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertUnauthorized(() -> tokens.verifyAccess("not-a-jwt"), "Invalid token");
+        assertUnauthorized(() -> tokens.verifyAccess(""), "Invalid token");
+    }
+
+    @Test
+    void bearerTokenIsReadFromTheHeader() {
+        assertThat(JwtTokens.bearerToken("Bearer abc")).isEqualTo("abc");
+        assertThat(JwtTokens.bearerToken("bearer  abc ")).isEqualTo("abc");
+        assertThat(JwtTokens.bearerToken(null)).isNull();
+        assertThat(JwtTokens.bearerToken("Bearer ")).isNull();
+        assertThat(JwtTokens.bearerToken("Basic abc")).isNull();
+        assertThat(JwtTokens.bearerToken("Bearerabc")).isNull();
+    }
+
+    @Test
+    void startupFailsWithoutAUsableSecret() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[31]);
+
+        assertThatThrownBy(() -> tokens("", "kixi-backend-api", Duration.ofMinutes(15)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("must be set");
+        assertThatThrownBy(() -> tokens("  ", "kixi-backend-api", Duration.ofMinutes(15)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("must be set");
+        assertThatThrownBy(() -> tokens("%%% not base64 %%%", "kixi-backend-api", Duration.ofMinutes(15)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("base64");
+        assertThatThrownBy(() -> tokens(shortSecret, "kixi-backend-api", Duration.ofMinutes(15)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("at least 256 bits");
+    }
+
+    static JwtTokens tokens(String secret, String issuer, Duration accessTtl) {
+        return new JwtTokens(new SimpleMeterRegistry(), secret, issuer, accessTtl, Duration.ofDays(7), Duration.ZERO, 100);
+    }
+
+    private static void assertUnauthorized(Runnable call, String message) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ApiException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED);
+                    assertThat(e.getMessage()).isEqualTo(message);
+                });
+    }
+}
@@ -0,0 +1,44 @@
+package ao.creativemode.kixi.security;
+
+import ao.creativemode.kixi.common.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(new SimpleMeterRegistry(), 10, 2, 3);
+
+    @AfterEach
+    void dispose() {
+        hasher.destroy();
+    }
+
+    @Test
+    void queueCapacityIsSharedByAllWorkers() {
+        String hash = hasher.encode("secret").block();
+
+        List<String> outcomes = Flux.range(0, 20)
+                .flatMap(i -> hasher.matches("secret", hash)
+                        .map(matched -> "ok")
+                        .onErrorResume(ApiException.class, e -> Mono.just(String.valueOf(e.getStatus().value()))), 20)
+                .collectList()
+                .block();
+
+        // 2 workers + 3 waiting are admitted; the rest are shed at once
+        assertThat(outcomes).filteredOn("ok"::equals).hasSize(5);
+        assertThat(outcomes).filteredOn(String.valueOf(HttpStatus.TOO_MANY_REQUESTS.value())::equals).hasSize(15);
+    }
+
+    @Test
+    void matchesNothingNeverMatches() {
+        assertThat(hasher.matchesNothing("anything").block()).isFalse();
+    }
+}
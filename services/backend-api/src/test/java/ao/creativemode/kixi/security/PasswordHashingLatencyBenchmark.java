@@ -0,0 +1,118 @@
+package ao.creativemode.kixi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a request that does no hashing while other requests on the same
+ * event loops run BCrypt checks. The server is a bare Reactor Netty server with
+ * a {@code /ping} route and a {@code /login} route that checks a password the
+ * way the login endpoint does:
+ * <ul>
+ *     <li>{@code idle}: no login traffic, the baseline;</li>
+ *     <li>{@code offloaded}: logins go through {@link PasswordHasher};</li>
+ *     <li>{@code inline}: logins call BCrypt on the event loop, as before the pool.</li>
+ * </ul>
+ * {@code /ping} latency under {@code offloaded} should stay close to {@code idle};
+ * under {@code inline} it grows with every hash queued on the loop.
+ * <p>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PasswordHashingLatencyBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingLatencyBenchmark {
+
+    private static final int EVENT_LOOPS = 2;
+    private static final int CONCURRENT_LOGINS = 8;
+
+    @Param({"idle", "offloaded", "inline"})
+    public String mode;
+
+    private LoopResources loops;
+    private DisposableServer server;
+    private PasswordHasher hasher;
+    private HttpClient client;
+    private Disposable logins;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        String hash = encoder.encode("password");
+        hasher = new PasswordHasher(new SimpleMeterRegistry(), 10, 0, 256);
+
+        loops = LoopResources.create("benchmark-server", EVENT_LOOPS, true);
+        server = HttpServer.create()
+                .port(0)
+                .runOn(loops)
+                .route(routes -> routes
+                        .get("/ping", (request, response) -> response.sendString(Mono.just("pong")))
+                        .get("/login", (request, response) -> response.sendString(
+                                check(encoder, hash).map(String::valueOf).onErrorReturn("busy"))))
+                .bindNow();
+        client = HttpClient.create().port(server.port());
+
+        if (!"idle".equals(mode)) {
+            logins = Flux.range(0, CONCURRENT_LOGINS)
+                    .flatMap(i -> get("/login").repeat(), CONCURRENT_LOGINS)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (logins != null) {
+            logins.dispose();
+        }
+        server.disposeNow();
+        loops.dispose();
+        hasher.destroy();
+    }
+
+    @Benchmark
+    public String ping() {
+        return get("/ping").block();
+    }
+
+    private Mono<Boolean> check(BCryptPasswordEncoder encoder, String hash) {
+        if ("inline".equals(mode)) {
+            return Mono.fromCallable(() -> encoder.matches("password", hash));
+        }
+        return hasher.matches("password", hash);
+    }
+
+    private Mono<String> get(String uri) {
+        return client.get().uri(uri).responseContent().aggregate().asString();
+    }
+}
@@ -0,0 +1,186 @@
+package ao.creativemode.kixi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the revocation list against a scripted {@link DatabaseClient}: rebuild and
+ * refresh queries return the rows queued for them, and every statement and its
+ * {@code since} binding is recorded.
+ */
+class TokenRevocationListTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T10:00:00Z");
+    private static final Instant EXPIRES = Instant.now().plus(Duration.ofHours(1));
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Instant> refreshedSince = new ArrayList<>();
+    private List<StoredRevocation> tableRows = List.of();
+    private List<StoredRevocation> newRows = List.of();
+    private boolean existsAnswer;
+
+    private TokenRevocationList revocations;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        when(databaseClient.sql(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        revocations = new TokenRevocationList(databaseClient, new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), Duration.ofMinutes(15), 1_000, 0.001, 100, 1_000);
+    }
+
+    @Test
+    void refreshWaitsForTheFirstRebuild() {
+        revocations.refresh().block();
+
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void rebuildSetsTheWatermarkToTheLatestRevocation() {
+        tableRows = List.of(revocation("a", T0.plusSeconds(30)), revocation("b", T0));
+        revocations.rebuild().block();
+
+        revocations.refresh().block();
+
+        assertThat(refreshedSince).containsExactly(T0.plusSeconds(30).minusSeconds(5));
+    }
+
+    @Test
+    void emptyTableStartsTheWatermarkAtTheEpoch() {
+        revocations.rebuild().block();
+
+        revocations.refresh().block();
+
+        assertThat(refreshedSince).containsExactly(Instant.EPOCH.minusSeconds(5));
+    }
+
+    @Test
+    void refreshAdvancesTheWatermarkButNeverMovesItBack() {
+        tableRows = List.of(revocation("a", T0));
+        revocations.rebuild().block();
+
+        newRows = List.of(revocation("late", T0.minusSeconds(2)), revocation("c", T0.plusSeconds(60)));
+        revocations.refresh().block();
+        newRows = List.of(revocation("late", T0.minusSeconds(2)));
+        revocations.refresh().block();
+        revocations.refresh().block();
+
+        assertThat(refreshedSince).containsExactly(
+                T0.minusSeconds(5),
+                T0.plusSeconds(55),
+                T0.plusSeconds(55));
+    }
+
+    @Test
+    void refreshedRevocationsAreAnsweredFromMemory() {
+        revocations.rebuild().block();
+        newRows = List.of(revocation("c", T0));
+        revocations.refresh().block();
+        statements.clear();
+
+        assertThat(revocations.isRevoked("c").block()).isTrue();
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void bloomFilterMissIsAnsweredWithoutAQuery() {
+        tableRows = List.of(revocation("a", T0));
+        revocations.rebuild().block();
+        statements.clear();
+
+        assertThat(revocations.isRevoked("not-revoked").block()).isFalse();
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void bloomFilterHitIsConfirmedOnceAndCached() {
+        tableRows = List.of(revocation("a", T0));
+        revocations.rebuild().block();
+        statements.clear();
+        existsAnswer = true;
+
+        assertThat(revocations.isRevoked("a").block()).isTrue();
+        assertThat(revocations.isRevoked("a").block()).isTrue();
+        assertThat(statements).hasSize(1).allMatch(sql -> sql.contains("EXISTS"));
+    }
+
+    @Test
+    void revokingIsVisibleLocallyAtOnce() {
+        revocations.rebuild().block();
+
+        assertThat(revocations.revoke("d", 1L, EXPIRES).block()).isTrue();
+        statements.clear();
+
+        assertThat(revocations.isRevoked("d").block()).isTrue();
+        assertThat(statements).isEmpty();
+    }
+
+    private static StoredRevocation revocation(String jti, Instant revokedAt) {
+        return new StoredRevocation(jti, EXPIRES, revokedAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DatabaseClient.GenericExecuteSpec statement(String sql) {
+        statements.add(sql);
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(spec.bind(anyString(), any())).thenAnswer(invocation -> {
+            if ("since".equals(invocation.getArgument(0))) {
+                refreshedSince.add(invocation.getArgument(1));
+            }
+            return spec;
+        });
+
+        FetchSpec<Map<String, Object>> fetch = mock(FetchSpec.class);
+        // DELETE purges nothing, INSERT revokes one row
+        when(fetch.rowsUpdated()).thenReturn(Mono.just(sql.contains("INSERT") ? 1L : 0L));
+        when(spec.fetch()).thenReturn(fetch);
+
+        when(spec.map(any(BiFunction.class))).thenAnswer(invocation -> {
+            BiFunction<Row, RowMetadata, Object> mapper = invocation.getArgument(0);
+            RowsFetchSpec<Object> rows = mock(RowsFetchSpec.class);
+            if (sql.contains("EXISTS")) {
+                Row row = mock(Row.class);
+                when(row.get("revoked", Boolean.class)).thenReturn(existsAnswer);
+                when(rows.one()).thenReturn(Mono.fromCallable(() -> mapper.apply(row, null)));
+            } else {
+                List<StoredRevocation> source = sql.contains("revoked_at > :since") ? newRows : tableRows;
+                when(rows.all()).thenReturn(Flux.fromIterable(source).map(stored -> mapper.apply(row(stored), null)));
+            }
+            return rows;
+        });
+        return spec;
+    }
+
+    private static Row row(StoredRevocation revocation) {
+        Row row = mock(Row.class);
+        when(row.get("jti", String.class)).thenReturn(revocation.jti());
+        when(row.get("expires_at", Instant.class)).thenReturn(revocation.expiresAt());
+        when(row.get("revoked_at", Instant.class)).thenReturn(revocation.revokedAt());
+        return row;
+    }
+
+    private record StoredRevocation(String jti, Instant expiresAt, Instant revokedAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package ao.creativemode.kixi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActivityWriteBehindFlushTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resubscribingTheScheduledPublisherFlushesNewTouches() {
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        FetchSpec<Map<String, Object>> fetch = mock(FetchSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.fetch()).thenReturn(fetch);
+        when(fetch.rowsUpdated()).thenReturn(Mono.just(1L));
+        ActivityWriteBehind activity = new ActivityWriteBehind(databaseClient, new SimpleMeterRegistry(), 500);
+
+        // Obtained once, as the scheduler does, before anything was touched
+        Mono<Void> scheduled = activity.flush();
+        StepVerifier.create(scheduled).verifyComplete();
+        verify(databaseClient, never()).sql(anyString());
+
+        activity.touchAccount(1L, LocalDateTime.now());
+        StepVerifier.create(scheduled).verifyComplete();
+        verify(databaseClient, times(1)).sql(anyString());
+    }
+}
@@ -0,0 +1,47 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestPropertySource(properties = "kixi.write-behind.flush-interval=PT0.2S")
+class ActivityWriteBehindTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ActivityWriteBehind activity;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void scheduledFlushWritesTouchesMadeAfterStartup() {
+        Long accountId = databaseClient.sql("""
+                        INSERT INTO accounts (username, email, password_hash)
+                        VALUES ('write-behind', 'write-behind@example.com', 'x')
+                        RETURNING id
+                        """)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+        LocalDateTime lastLogin = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        activity.touchAccount(accountId, lastLogin);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+                databaseClient.sql("SELECT last_login FROM accounts WHERE id = :id")
+                        .bind("id", accountId)
+                        .map((row, metadata) -> row.get("last_login", LocalDateTime.class))
+                        .one()
+                        .block())
+                .isEqualTo(lastLogin));
+    }
+}
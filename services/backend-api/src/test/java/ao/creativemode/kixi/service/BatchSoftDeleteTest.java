@@ -0,0 +1,117 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.common.batch.BatchItem;
+import ao.creativemode.kixi.common.batch.BatchResult;
+import ao.creativemode.kixi.repository.AccountRepository;
+import ao.creativemode.kixi.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bulk soft-delete and restore paths: one {@code UPDATE ... WHERE id = ANY(:ids)
+ * RETURNING id} per chunk, with each item answered from the returned ids.
+ */
+class BatchSoftDeleteTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void softDeleteBatchAnswersEachItem() {
+        Long active = insertCourse("BSD-ACTIVE", false);
+        Long deleted = insertCourse("BSD-DELETED", true);
+
+        List<BatchResult<Long>> results = courseService.softDeleteBatch(items(active, deleted, 999_999L))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BatchResult::status).containsExactly(200, 404, 404);
+        assertThat(isDeleted("courses", active)).isTrue();
+        assertThat(version("courses", active)).isOne();
+        assertThat(version("courses", deleted)).isZero();
+    }
+
+    @Test
+    void restoreBatchAnswersEachItem() {
+        Long active = insertCourse("BSR-ACTIVE", false);
+        Long deleted = insertCourse("BSR-DELETED", true);
+
+        List<BatchResult<Long>> results = courseService.restoreBatch(items(deleted, active, 999_999L))
+                .collectList()
+                .block();
+
+        assertThat(results).extracting(BatchResult::status).containsExactly(200, 400, 400);
+        assertThat(isDeleted("courses", deleted)).isFalse();
+        assertThat(version("courses", deleted)).isOne();
+        assertThat(version("courses", active)).isZero();
+    }
+
+    @Test
+    void repositoryBatchStatementsReturnOnlyTheRowsTheyChanged() {
+        Long first = insertAccount("batch-first");
+        Long second = insertAccount("batch-second");
+
+        assertThat(accountRepository.softDeleteAllById(new Long[]{first, second, 999_999L}).collectList().block())
+                .containsExactlyInAnyOrder(first, second);
+        assertThat(accountRepository.softDeleteAllById(new Long[]{first}).collectList().block()).isEmpty();
+
+        assertThat(accountRepository.restoreAllById(new Long[]{second}).collectList().block()).containsExactly(second);
+        assertThat(accountRepository.restoreAllById(new Long[]{second}).collectList().block()).isEmpty();
+        assertThat(isDeleted("accounts", first)).isTrue();
+        assertThat(isDeleted("accounts", second)).isFalse();
+    }
+
+    private static List<BatchItem<Long>> items(Long... ids) {
+        return IntStream.range(0, ids.length)
+                .mapToObj(i -> new BatchItem<>(i, ids[i]))
+                .toList();
+    }
+
+    private Long insertCourse(String code, boolean deleted) {
+        return databaseClient.sql("INSERT INTO courses (code, name, deleted_at) VALUES (:code, :code, "
+                        + (deleted ? "now()" : "NULL") + ") RETURNING id")
+                .bind("code", code)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private Long insertAccount(String username) {
+        return databaseClient.sql("""
+                        INSERT INTO accounts (username, email, password_hash)
+                        VALUES (:username, :username || '@example.com', 'x')
+                        RETURNING id
+                        """)
+                .bind("username", username)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private boolean isDeleted(String table, Long id) {
+        return databaseClient.sql("SELECT deleted_at IS NOT NULL AS deleted FROM " + table + " WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("deleted", Boolean.class))
+                .one()
+                .block();
+    }
+
+    private long version(String table, Long id) {
+        return databaseClient.sql("SELECT version FROM " + table + " WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("version", Long.class))
+                .one()
+                .block();
+    }
+}
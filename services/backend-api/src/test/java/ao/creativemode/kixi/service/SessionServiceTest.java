@@ -0,0 +1,44 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.common.r2dbc.MultiRowInsert;
+import ao.creativemode.kixi.dto.sessions.SessionResponse;
+import ao.creativemode.kixi.model.Session;
+import ao.creativemode.kixi.repository.AccountRepository;
+import ao.creativemode.kixi.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionServiceTest {
+
+    @Test
+    void tokenLookupReportsTheHeartbeatWithoutTouchingTheCachedSession() {
+        LocalDateTime lastUsed = LocalDateTime.now().minusHours(1);
+        Session cached = Session.builder()
+                .id(7L)
+                .accountId(1L)
+                .token("token")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .lastUsed(lastUsed)
+                .build();
+        SessionTokenCache tokenCache = mock(SessionTokenCache.class);
+        when(tokenCache.get(any(), any())).thenReturn(Mono.just(cached));
+        ActivityWriteBehind activity = mock(ActivityWriteBehind.class);
+        SessionService service = new SessionService(mock(SessionRepository.class), mock(AccountRepository.class),
+                tokenCache, activity, mock(MultiRowInsert.class));
+
+        SessionResponse response = service.findActiveByToken("token").block();
+
+        assertThat(cached.getLastUsed()).isEqualTo(lastUsed);
+        assertThat(response.lastUsed()).isAfter(lastUsed);
+        verify(activity).touchSession(eq(7L), eq(response.lastUsed()));
+    }
+}
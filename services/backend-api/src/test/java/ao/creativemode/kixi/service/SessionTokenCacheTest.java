@@ -0,0 +1,80 @@
+package ao.creativemode.kixi.service;
+
+import ao.creativemode.kixi.model.Session;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionTokenCacheTest {
+
+    private static final byte[] TOKEN_HASH = {1, 2, 3};
+
+    private final SessionTokenCache cache = new SessionTokenCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadedSessionIsServedFromTheCache() {
+        cache.get(TOKEN_HASH, loader(session())).block();
+        cache.get(TOKEN_HASH, loader(session())).block();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidationDropsTheCachedSession() {
+        cache.get(TOKEN_HASH, loader(session())).block();
+
+        cache.invalidate(7L);
+        cache.get(TOKEN_HASH, loader(session())).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheLoadedSessionOutOfTheCache() {
+        Sinks.One<Session> row = Sinks.one();
+        CompletableFuture<Session> pending = cache.get(TOKEN_HASH, row::asMono).toFuture();
+
+        // revoked after the loader read the row but before its result arrived
+        cache.invalidate(7L);
+        row.tryEmitValue(session());
+        assertThat(pending.join().getId()).isEqualTo(7L);
+
+        cache.get(TOKEN_HASH, loader(session())).block();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadStartedAfterAnInvalidationIsCached() {
+        cache.invalidate(7L);
+        cache.get(TOKEN_HASH, loader(session())).block();
+        cache.get(TOKEN_HASH, loader(session())).block();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    private Supplier<Mono<Session>> loader(Session session) {
+        return () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return session;
+        });
+    }
+
+    private static Session session() {
+        return Session.builder()
+                .id(7L)
+                .accountId(1L)
+                .token("token")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+    }
+}